@@ -0,0 +1,151 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.asynchronous;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+
+import org.slf4j.Logger;
+
+import br.gov.frameworkdemoiselle.DemoiselleException;
+import br.gov.frameworkdemoiselle.internal.implementation.AsynchronousExecutor;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+@Interceptor
+@Asynchronous
+public class AsynchronousInterceptor implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient AsynchronousExecutor executor;
+
+	private transient ResourceBundle bundle;
+
+	private transient Logger logger;
+
+	private AsynchronousExecutor getExecutor() {
+		if (this.executor == null) {
+			this.executor = Beans.getReference(AsynchronousExecutor.class);
+		}
+
+		return this.executor;
+	}
+
+	/**
+	 * <p>
+	 * Manages methods annotated with {@link Asynchronous}. The call is handed to a pool thread and this interceptor
+	 * returns at once: <code>null</code> for <code>void</code> methods, or a {@link Future} that gives the value
+	 * wrapped by the {@link Future} returned from the method.
+	 * </p>
+	 * <p>
+	 * Exceptions thrown by <code>void</code> methods are logged, since there is nobody to receive them. Exceptions
+	 * thrown by methods returning {@link Future} are rethrown by {@link Future#get()}, wrapped in an
+	 * {@link java.util.concurrent.ExecutionException}.
+	 * </p>
+	 * <p>
+	 * This method is not intended to be called directly, instead the CDI provider will call this method when an
+	 * {@link Asynchronous} method is called.
+	 * </p>
+	 */
+	@AroundInvoke
+	public Object manage(final InvocationContext ic) throws Exception {
+		final Method method = ic.getMethod();
+		Class<?> returnType = method.getReturnType();
+		Object result = null;
+
+		if (void.class.equals(returnType)) {
+			getLogger().debug(getBundle().getString("asynchronous-execution", method.toGenericString()));
+
+			getExecutor().submit(new Callable<Object>() {
+
+				@Override
+				public Object call() throws Exception {
+					try {
+						return ic.proceed();
+
+					} catch (Exception cause) {
+						getLogger().error(getBundle().getString("asynchronous-execution-failed", method.toGenericString()),
+								cause);
+						throw cause;
+					}
+				}
+			});
+
+		} else if (Future.class.equals(returnType)) {
+			getLogger().debug(getBundle().getString("asynchronous-execution", method.toGenericString()));
+
+			result = getExecutor().submit(new Callable<Object>() {
+
+				@Override
+				public Object call() throws Exception {
+					Object value = ic.proceed();
+					return value != null ? ((Future<?>) value).get() : null;
+				}
+			});
+
+		} else {
+			throw new DemoiselleException(getBundle().getString("asynchronous-invalid-return-type",
+					method.toGenericString()));
+		}
+
+		return result;
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
+		}
+
+		return bundle;
+	}
+
+	private Logger getLogger() {
+		if (logger == null) {
+			logger = Beans.getReference(Logger.class, new NameQualifier(AsynchronousInterceptor.class.getName()));
+		}
+
+		return logger;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.configuration;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Event fired after a configuration class was reloaded because its resource file changed. Only fired when the
+ * configuration reload is enabled through the <i>frameworkdemoiselle.configuration.reload.enabled</i> key.
+ * <p>
+ * Observers receive the event after the new values were published, so any read of the configuration made by the
+ * observer already returns the new values.
+ * 
+ * @author SERPRO
+ */
+public class ConfigurationChangeEvent implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Class<?> type;
+
+	private final Set<String> changedKeys;
+
+	public ConfigurationChangeEvent(Class<?> type, Set<String> changedKeys) {
+		this.type = type;
+		this.changedKeys = Collections.unmodifiableSet(changedKeys);
+	}
+
+	/**
+	 * @return the configuration class (annotated with {@link Configuration}) that was reloaded.
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * @return the full keys (including the prefix) whose values changed.
+	 */
+	public Set<String> getChangedKeys() {
+		return changedKeys;
+	}
+}
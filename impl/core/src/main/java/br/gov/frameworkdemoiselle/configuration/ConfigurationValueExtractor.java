@@ -44,6 +44,12 @@ import org.apache.commons.configuration.Configuration;
  * Interface that defining the way to extract the values of configurations attributes from property file.
  * It should be implemented if is wanted to extract values of a configuration attribute, in a different way or 
  * for a type not yet offered by Demoiselle Framework.
+ * <p>
+ * The extractor is chosen by the generic type of the field, not by the field itself: {@link #isSupported(Field)} is
+ * called for the first field of each type, and the extractor elected for that type is reused for every other field
+ * with the same generic type, in any configuration class. An implementation must therefore decide only on the type
+ * of the field (for instance {@link Field#getGenericType()}), and never on its name, its annotations or its declaring
+ * class. {@link #getValue(String, String, Field, Configuration)} still receives each field being loaded.
  * 
  * @author SERPRO
  */
@@ -67,10 +73,10 @@ public interface ConfigurationValueExtractor {
 
 	/**
 	 * Checks if the extractor class is appropriate to extract values to the type of deffined by parameter
-	 * <b>field</b>.
+	 * <b>field</b>. The answer is cached for the generic type of the field, so it must depend only on that type.
 	 * 
 	 * @param field
-	 * 			field to be checked.
+	 * 			field to be checked, the first one found with its generic type.
 	 */
 	boolean isSupported(Field field);
 }
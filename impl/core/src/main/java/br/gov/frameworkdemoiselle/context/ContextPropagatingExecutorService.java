@@ -0,0 +1,297 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import br.gov.frameworkdemoiselle.internal.bootstrap.CustomContextBootstrap;
+import br.gov.frameworkdemoiselle.internal.context.AbstractThreadLocalContext;
+import br.gov.frameworkdemoiselle.internal.context.BeanStore;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+/**
+ * {@link ExecutorService} that makes the thread bound contexts of the framework (request and view contexts
+ * running outside a web container) available to the tasks it runs. When a task is submitted, the stores of the
+ * active thread bound contexts of the submitting thread are captured, and they are bound to the worker thread while
+ * the task runs. Static based contexts (session, conversation and static scopes) are already shared by all threads.
+ * <p>
+ * In the {@link Mode#SHARED} mode the tasks use the same beans as the submitting thread, so these beans must be safe
+ * for concurrent use. In the {@link Mode#CHILD_REQUEST} mode each task gets a fresh request store, destroyed when the
+ * task ends, while the other captured stores are shared.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * ExecutorService executor = new ContextPropagatingExecutorService(Executors.newFixedThreadPool(4), Mode.CHILD_REQUEST);
+ * Future&lt;List&lt;Book&gt;&gt; books = executor.submit(new Callable&lt;List&lt;Book&gt;&gt;() {...});
+ * </pre>
+ * 
+ * @author SERPRO
+ */
+public class ContextPropagatingExecutorService implements ExecutorService {
+
+	/**
+	 * How the request context is made available to the tasks.
+	 */
+	public enum Mode {
+
+		/**
+		 * Tasks share the request scoped beans of the submitting thread.
+		 */
+		SHARED,
+
+		/**
+		 * Each task gets its own request scoped beans, destroyed when the task ends.
+		 */
+		CHILD_REQUEST
+	}
+
+	private final ExecutorService delegate;
+
+	private final Mode mode;
+
+	/**
+	 * Wraps an executor in the {@link Mode#SHARED} mode.
+	 */
+	public ContextPropagatingExecutorService(ExecutorService delegate) {
+		this(delegate, Mode.SHARED);
+	}
+
+	public ContextPropagatingExecutorService(ExecutorService delegate, Mode mode) {
+		this.delegate = delegate;
+		this.mode = mode;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		delegate.execute(wrap(command));
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		return delegate.submit(wrap(task));
+	}
+
+	@Override
+	public <T> Future<T> submit(Runnable task, T result) {
+		return delegate.submit(wrap(task), result);
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		return delegate.submit(wrap(task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		return delegate.invokeAll(wrap(tasks));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return delegate.invokeAll(wrap(tasks), timeout, unit);
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		return delegate.invokeAny(wrap(tasks));
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return delegate.invokeAny(wrap(tasks), timeout, unit);
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+
+	private <T> Callable<T> wrap(final Callable<T> task) {
+		final List<CapturedStore> captured = capture();
+
+		return new Callable<T>() {
+
+			@Override
+			public T call() throws Exception {
+				List<BeanStore> previous = bind(captured);
+
+				try {
+					return task.call();
+
+				} finally {
+					unbind(captured, previous);
+				}
+			}
+		};
+	}
+
+	private Runnable wrap(final Runnable task) {
+		final List<CapturedStore> captured = capture();
+
+		return new Runnable() {
+
+			@Override
+			public void run() {
+				List<BeanStore> previous = bind(captured);
+
+				try {
+					task.run();
+
+				} finally {
+					unbind(captured, previous);
+				}
+			}
+		};
+	}
+
+	private <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+		List<Callable<T>> result = new ArrayList<Callable<T>>(tasks.size());
+
+		for (Callable<T> task : tasks) {
+			result.add(wrap(task));
+		}
+
+		return result;
+	}
+
+	/*
+	 * Executado na thread que submete a tarefa: guarda os stores dos contextos ativos.
+	 */
+	private List<CapturedStore> capture() {
+		List<CapturedStore> captured = new ArrayList<CapturedStore>();
+		List<CustomContext> contexts = Beans.getReference(CustomContextBootstrap.class).getCustomContexts();
+
+		if (contexts != null) {
+			for (CustomContext context : contexts) {
+				if (context instanceof AbstractThreadLocalContext && context.isActive()) {
+					AbstractThreadLocalContext threadLocalContext = (AbstractThreadLocalContext) context;
+
+					if (mode == Mode.CHILD_REQUEST && context instanceof RequestContext) {
+						captured.add(new CapturedStore(threadLocalContext, null));
+
+					} else if (threadLocalContext.getBoundStore() != null) {
+						captured.add(new CapturedStore(threadLocalContext, threadLocalContext.getBoundStore()));
+					}
+				}
+			}
+		}
+
+		return captured;
+	}
+
+	/*
+	 * Executado na thread de trabalho: associa os stores capturados (ou um store novo, no modo CHILD_REQUEST).
+	 */
+	private List<BeanStore> bind(List<CapturedStore> captured) {
+		List<BeanStore> previous = new ArrayList<BeanStore>(captured.size());
+
+		for (CapturedStore item : captured) {
+			BeanStore store = item.store != null ? item.store : new BeanStore();
+			previous.add(item.context.bindStore(store));
+
+			// O contexto pode estar ativo apenas para a thread que submeteu a tarefa.
+			item.activated = item.context.activateForCurrentThread();
+		}
+
+		return previous;
+	}
+
+	private void unbind(List<CapturedStore> captured, List<BeanStore> previous) {
+		for (int i = 0; i < captured.size(); i++) {
+			CapturedStore item = captured.get(i);
+
+			// O store criado para a tarefa é descartado junto com seus beans.
+			try {
+				if (item.store == null) {
+					item.context.clearInstances();
+				}
+
+			} finally {
+				if (item.activated) {
+					item.context.deactivateForCurrentThread();
+				}
+
+				item.context.bindStore(previous.get(i));
+			}
+		}
+	}
+
+	private static class CapturedStore {
+
+		private final AbstractThreadLocalContext context;
+
+		private final BeanStore store;
+
+		private boolean activated;
+
+		public CapturedStore(AbstractThreadLocalContext context, BeanStore store) {
+			this.context = context;
+			this.store = store;
+		}
+	}
+}
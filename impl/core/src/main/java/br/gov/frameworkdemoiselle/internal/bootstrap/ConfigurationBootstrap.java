@@ -36,47 +36,198 @@
  */
 package br.gov.frameworkdemoiselle.internal.bootstrap;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.CtNewMethod;
 import javassist.LoaderClassPath;
+import javassist.Modifier;
 import javassist.NotFoundException;
 
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
 import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.ProcessAnnotatedType;
 
 import org.slf4j.Logger;
 
 import br.gov.frameworkdemoiselle.configuration.Configuration;
+import br.gov.frameworkdemoiselle.configuration.ConfigurationException;
 import br.gov.frameworkdemoiselle.configuration.ConfigurationValueExtractor;
+import br.gov.frameworkdemoiselle.internal.configuration.ConfigurationConfig;
 import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationImpl;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationIndex;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationMetadata;
+import br.gov.frameworkdemoiselle.internal.implementation.LoadableConfiguration;
 import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
 
 public class ConfigurationBootstrap extends AbstractStrategyBootstrap<ConfigurationValueExtractor> {
 
 	private Logger logger;
 
+	private transient ResourceBundle bundle;
+
+	private final List<Class<Object>> proxyTypes = Collections.synchronizedList(new ArrayList<Class<Object>>());
+
 	private static final Map<ClassLoader, Map<String, Class<Object>>> cacheClassLoader = Collections
 			.synchronizedMap(new HashMap<ClassLoader, Map<String, Class<Object>>>());
 
+	private final ConcurrentMap<Type, ConfigurationValueExtractor> extractorCache = new ConcurrentHashMap<Type, ConfigurationValueExtractor>();
+
+	private final ConcurrentMap<Class<?>, ConfigurationMetadata> metadataCache = new ConcurrentHashMap<Class<?>, ConfigurationMetadata>();
+
 	public void processAnnotatedType(@Observes final ProcessAnnotatedType<Object> event, BeanManager beanManager)
 			throws Exception {
 		final AnnotatedType<Object> annotatedType = event.getAnnotatedType();
 
+		// O proxy gerado na compilação herda @Configuration e fica no mesmo arquivo da aplicação que a classe de
+		// configuração. Ele só deve ser registrado no lugar dela, e não como um bean a mais.
+		if (LoadableConfiguration.class.isAssignableFrom(annotatedType.getJavaClass())) {
+			event.veto();
+			return;
+		}
+
 		if (annotatedType.getJavaClass().isAnnotationPresent(Configuration.class)) {
 			Class<Object> proxyClass = createProxy(annotatedType.getJavaClass());
 			AnnotatedType<Object> proxyAnnotatedType = beanManager.createAnnotatedType(proxyClass);
 			event.setAnnotatedType(proxyAnnotatedType);
+
+			if (!annotatedType.getJavaClass().isInterface()
+					&& !Modifier.isAbstract(annotatedType.getJavaClass().getModifiers())) {
+				proxyTypes.add(proxyClass);
+			}
+		}
+	}
+
+	/**
+	 * When the key <i>frameworkdemoiselle.configuration.warmup.enabled</i> is <code>true</code>, loads every
+	 * configuration class in parallel before the application receives its first request. The failures of all classes
+	 * are reported together as a single deployment problem.
+	 */
+	public void warmUp(@Observes final AfterDeploymentValidation event, final BeanManager beanManager) {
+		ConfigurationConfig config = Beans.getReference(ConfigurationConfig.class);
+
+		List<Bean<?>> beans = getConfigurationBeans(beanManager);
+		if (!config.isWarmupEnabled() || beans.isEmpty()) {
+			return;
+		}
+
+		int threads = Math.max(1, Math.min(config.getWarmupThreads(), beans.size()));
+		getLogger().info(getBundle().getString("configuration-warmup-started", beans.size(), threads));
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "demoiselle-configuration-warmup-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		Map<Bean<?>, Future<?>> tasks = new LinkedHashMap<Bean<?>, Future<?>>();
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		try {
+			for (final Bean<?> bean : beans) {
+				tasks.put(bean, executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						Thread current = Thread.currentThread();
+						ClassLoader previous = current.getContextClassLoader();
+						current.setContextClassLoader(classLoader);
+
+						try {
+							Object reference = beanManager.getReference(bean, bean.getBeanClass(),
+									beanManager.createCreationalContext(bean));
+							((LoadableConfiguration) reference).ensureLoaded();
+
+						} finally {
+							current.setContextClassLoader(previous);
+						}
+
+						return null;
+					}
+				}));
+			}
+
+			reportFailures(event, tasks);
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Bean<?>> getConfigurationBeans(BeanManager beanManager) {
+		List<Bean<?>> result = new ArrayList<Bean<?>>();
+
+		synchronized (proxyTypes) {
+			for (Class<Object> proxyType : proxyTypes) {
+				for (Bean<?> bean : beanManager.getBeans(proxyType)) {
+					if (bean.getBeanClass() == proxyType) {
+						result.add(bean);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private void reportFailures(AfterDeploymentValidation event, Map<Bean<?>, Future<?>> tasks) {
+		List<String> failed = new ArrayList<String>();
+		Throwable firstCause = null;
+
+		for (Map.Entry<Bean<?>, Future<?>> task : tasks.entrySet()) {
+			String typeName = task.getKey().getBeanClass().getSuperclass().getName();
+
+			try {
+				task.getValue().get();
+
+			} catch (InterruptedException cause) {
+				Thread.currentThread().interrupt();
+				event.addDeploymentProblem(cause);
+				return;
+
+			} catch (ExecutionException cause) {
+				getLogger().error(getBundle().getString("configuration-warmup-failed", typeName), cause.getCause());
+				failed.add(typeName);
+
+				if (firstCause == null) {
+					firstCause = cause.getCause();
+				}
+			}
+		}
+
+		if (!failed.isEmpty()) {
+			event.addDeploymentProblem(new ConfigurationException(getBundle().getString(
+					"configuration-warmup-failures", failed.size(), failed), firstCause));
 		}
 	}
 
@@ -91,10 +242,67 @@ public class ConfigurationBootstrap extends AbstractStrategyBootstrap<Configurat
 		return fields;
 	}
 
+	/*
+	 * Métodos de instância que o proxy pode chamar sobre a instância recarregada: os públicos e, como o proxy fica no
+	 * pacote da classe de configuração, os protegidos e de pacote declarados nesse mesmo pacote. Os declarados em
+	 * superclasses de outros pacotes não são acessíveis a partir do proxy.
+	 */
+	private static boolean isRedirectable(CtClass ctSuperClass, CtMethod method) {
+		int modifiers = method.getModifiers();
+
+		if (Modifier.isStatic(modifiers) || Modifier.isAbstract(modifiers) || Modifier.isPrivate(modifiers)) {
+			return false;
+		}
+
+		return Modifier.isPublic(modifiers) || isSamePackage(ctSuperClass, method.getDeclaringClass());
+	}
+
+	private static boolean isSamePackage(CtClass type, CtClass other) {
+		String packageName = type.getPackageName();
+		return packageName == null ? other.getPackageName() == null : packageName.equals(other.getPackageName());
+	}
+
+	private static String createRedirect(CtClass ctSuperClass, CtMethod ctSuperMethod) throws NotFoundException {
+		String call = "((" + ctSuperClass.getName() + ") current)." + ctSuperMethod.getName() + "($$)";
+
+		if (ctSuperMethod.getReturnType() == CtClass.voidType) {
+			return "if (current != null) { " + call + "; return; }";
+		}
+
+		return "if (current != null) { return ($r) " + call + "; }";
+	}
+
+	/*
+	 * Proxy gerado pelo processador de anotações na compilação da aplicação, quando presente. Ele é equivalente ao
+	 * proxy gerado com javassist, mas dispensa o ClassPool e a geração de bytecode durante a implantação.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Class<Object> getGeneratedProxy(Class<Object> type) {
+		Class<?> proxy;
+
+		try {
+			proxy = Class.forName(type.getName() + ConfigurationIndex.PROXY_SUFFIX, false, type.getClassLoader());
+
+		} catch (ClassNotFoundException cause) {
+			proxy = null;
+		}
+
+		if (proxy == null || proxy.getSuperclass() != type || !LoadableConfiguration.class.isAssignableFrom(proxy)) {
+			return null;
+		}
+
+		return (Class<Object>) proxy;
+	}
+
 	@SuppressWarnings("unchecked")
 	private Class<Object> createProxy(Class<Object> type) throws Exception {
+		Class<Object> generated = getGeneratedProxy(type);
+		if (generated != null) {
+			return generated;
+		}
+
 		String superClassName = type.getCanonicalName();
-		String chieldClassName = superClassName + "_$$_DemoiselleProxy";
+		String chieldClassName = superClassName + ConfigurationIndex.PROXY_SUFFIX;
 
 		Map<String, Class<Object>> cacheProxy = Collections.synchronizedMap(new HashMap<String, Class<Object>>());
 
@@ -122,7 +330,12 @@ public class ConfigurationBootstrap extends AbstractStrategyBootstrap<Configurat
 			CtMethod ctChieldMethod;
 			for (CtMethod ctSuperMethod : getMethods(ctSuperClass)) {
 				ctChieldMethod = CtNewMethod.delegator(ctSuperMethod, ctChieldClass);
-				ctChieldMethod.insertBefore("load(this);");
+
+				if (isRedirectable(ctSuperClass, ctSuperMethod)) {
+					ctChieldMethod.insertBefore(createRedirect(ctSuperClass, ctSuperMethod));
+				}
+
+				ctChieldMethod.insertBefore("if (!loaded) { load(this); }");
 
 				ctChieldClass.addMethod(ctChieldMethod);
 			}
@@ -136,6 +349,29 @@ public class ConfigurationBootstrap extends AbstractStrategyBootstrap<Configurat
 		return clazzProxy;
 	}
 
+	/**
+	 * @return the {@link ConfigurationValueExtractor} already elected for each configuration field type, keyed by the
+	 *         generic type of the field.
+	 */
+	public ConcurrentMap<Type, ConfigurationValueExtractor> getExtractorCache() {
+		return extractorCache;
+	}
+
+	/**
+	 * @return the {@link ConfigurationMetadata} already built for each configuration class.
+	 */
+	public ConcurrentMap<Class<?>, ConfigurationMetadata> getMetadataCache() {
+		return metadataCache;
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = new ResourceBundle("demoiselle-core-bundle", Locale.getDefault());
+		}
+
+		return bundle;
+	}
+
 	@Override
 	protected Logger getLogger() {
 		if (logger == null) {
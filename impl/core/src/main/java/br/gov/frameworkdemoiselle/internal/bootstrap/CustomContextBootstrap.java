@@ -10,6 +10,7 @@ import javax.enterprise.inject.spi.ProcessAnnotatedType;
 
 import br.gov.frameworkdemoiselle.context.CustomContext;
 import br.gov.frameworkdemoiselle.context.StaticContext;
+import br.gov.frameworkdemoiselle.internal.context.AbstractCustomContext;
 import br.gov.frameworkdemoiselle.internal.context.ContextualStore;
 import br.gov.frameworkdemoiselle.internal.context.StaticContextImpl;
 import br.gov.frameworkdemoiselle.internal.context.TemporaryConversationContextImpl;
@@ -61,6 +62,11 @@ public class CustomContextBootstrap implements Extension{
 			contexts.add(ctx);
 			
 			for (CustomContext c : contexts){
+				//Associa o contexto ao ContextualStore uma única vez, evitando buscá-lo a cada acesso a um bean.
+				if (c instanceof AbstractCustomContext){
+					((AbstractCustomContext)c).setContextualStore(contextualStore);
+				}
+
 				event.addContext(c);
 			}
 		}
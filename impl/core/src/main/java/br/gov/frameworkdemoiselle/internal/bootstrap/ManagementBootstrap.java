@@ -52,6 +52,7 @@ import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.ProcessAnnotatedType;
 
 import br.gov.frameworkdemoiselle.DemoiselleException;
+import br.gov.frameworkdemoiselle.internal.implementation.ConditionalManagedType;
 import br.gov.frameworkdemoiselle.internal.implementation.ManagedType;
 import br.gov.frameworkdemoiselle.internal.implementation.Management;
 import br.gov.frameworkdemoiselle.lifecycle.AfterShutdownProccess;
@@ -89,6 +90,10 @@ public class ManagementBootstrap implements Extension {
 						.getCanonicalName()));
 			}
 
+			if (!isManagementEnabled(type.getJavaClass())) {
+				continue;
+			}
+
 			ManagedType managedType = new ManagedType(type.getJavaClass());
 			monitoringManager.addManagedType(managedType);
 		}
@@ -104,6 +109,14 @@ public class ManagementBootstrap implements Extension {
 		monitoringManager.initialize(managementExtensionCache);
 	}
 
+	/*
+	 * Classes gerenciadas fornecidas pelo próprio framework só são registradas quando habilitadas pela aplicação.
+	 */
+	private boolean isManagementEnabled(Class<?> type) {
+		return !ConditionalManagedType.class.isAssignableFrom(type)
+				|| ((ConditionalManagedType) Beans.getReference(type)).isManagementEnabled();
+	}
+
 	public void unregisterAvailableManagedTypes(@Observes final AfterShutdownProccess event) {
 
 		Management manager = Beans.getReference(Management.class);
@@ -0,0 +1,78 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.configuration;
+
+import java.io.Serializable;
+
+import br.gov.frameworkdemoiselle.annotation.Name;
+import br.gov.frameworkdemoiselle.configuration.Configuration;
+
+/**
+ * Settings of the pool that runs the methods annotated with {@link br.gov.frameworkdemoiselle.asynchronous.Asynchronous}.
+ * 
+ * @author SERPRO
+ */
+@Configuration(prefix = "frameworkdemoiselle.asynchronous")
+public class AsynchronousConfig implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Name("pool.size")
+	private int poolSize = 10;
+
+	@Name("queue.capacity")
+	private int queueCapacity = 100;
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.asynchronous.pool.size</i> in the
+	 *         <b>demoiselle.properties</b> file, the maximum number of asynchronous methods running at the same time. If
+	 *         there is no value defined, returns the default value 10
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.asynchronous.queue.capacity</i> in the
+	 *         <b>demoiselle.properties</b> file, the maximum number of asynchronous calls waiting for a free thread.
+	 *         Calls made when the queue is full are rejected. If there is no value defined, returns the default value
+	 *         100
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.configuration;
+
+import java.io.Serializable;
+
+import br.gov.frameworkdemoiselle.annotation.Name;
+import br.gov.frameworkdemoiselle.configuration.Configuration;
+
+/**
+ * Settings of the configuration mechanism itself.
+ * 
+ * @author SERPRO
+ */
+@Configuration(prefix = "frameworkdemoiselle.configuration")
+public class ConfigurationConfig implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Name("reload.enabled")
+	private boolean reloadEnabled = false;
+
+	@Name("reload.interval")
+	private int reloadInterval = 10;
+
+	@Name("warmup.enabled")
+	private boolean warmupEnabled = false;
+
+	@Name("warmup.threads")
+	private int warmupThreads = Runtime.getRuntime().availableProcessors();
+
+	@Name("monitoring.enabled")
+	private boolean monitoringEnabled = false;
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.configuration.reload.enabled</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> the configuration files are watched and
+	 *         configuration classes are reloaded when their files change. If there is no value defined, returns the
+	 *         default value <code>false</code>
+	 */
+	public boolean isReloadEnabled() {
+		return reloadEnabled;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.configuration.reload.interval</i> in the
+	 *         <b>demoiselle.properties</b> file, the interval in seconds between two checks for modified configuration
+	 *         files. If there is no value defined, returns the default value 10
+	 */
+	public int getReloadInterval() {
+		return reloadInterval;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.configuration.warmup.enabled</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> all configuration classes are loaded during the
+	 *         application deployment instead of on their first use. If there is no value defined, returns the default
+	 *         value <code>false</code>
+	 */
+	public boolean isWarmupEnabled() {
+		return warmupEnabled;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.configuration.warmup.threads</i> in the
+	 *         <b>demoiselle.properties</b> file, the maximum number of threads loading configuration classes in parallel
+	 *         during the warm-up. If there is no value defined, returns the number of available processors
+	 */
+	public int getWarmupThreads() {
+		return warmupThreads;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.configuration.monitoring.enabled</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> the configuration loading statistics are
+	 *         exposed to the management extensions. If there is no value defined, returns the default value
+	 *         <code>false</code>
+	 */
+	public boolean isMonitoringEnabled() {
+		return monitoringEnabled;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.configuration;
+
+import java.io.Serializable;
+
+import br.gov.frameworkdemoiselle.annotation.Name;
+import br.gov.frameworkdemoiselle.configuration.Configuration;
+
+/**
+ * Settings of the custom contexts provided by the framework.
+ * 
+ * @author SERPRO
+ */
+@Configuration(prefix = "frameworkdemoiselle.context")
+public class ContextConfig implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Name("monitoring.enabled")
+	private boolean monitoringEnabled = false;
+
+	@Name("monitoring.store.age")
+	private long storeAge = 600;
+
+	@Name("passivation.tracking")
+	private boolean passivationTracking = false;
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.context.monitoring.enabled</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> the occupancy figures of the custom contexts are
+	 *         exposed to the management extensions. If there is no value defined, returns the default value
+	 *         <code>false</code>
+	 */
+	public boolean isMonitoringEnabled() {
+		return monitoringEnabled;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.context.monitoring.store.age</i> in the
+	 *         <b>demoiselle.properties</b> file, the age in seconds after which a store still in use is reported as a
+	 *         possible leak. If there is no value defined, returns the default value 600
+	 */
+	public long getStoreAge() {
+		return storeAge;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.context.passivation.tracking</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> the bean stores kept in session attributes of
+	 *         their own are set again only when their beans were accessed since they were last serialized, so
+	 *         containers that replicate only the attributes set during the request send only those stores. If there
+	 *         is no value defined, returns the default value <code>false</code>
+	 */
+	public boolean isPassivationTracking() {
+		return passivationTracking;
+	}
+}
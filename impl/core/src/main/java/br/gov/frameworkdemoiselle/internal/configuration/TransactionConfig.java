@@ -50,7 +50,45 @@ public class TransactionConfig implements Serializable {
 	@Name("class")
 	private Class<? extends Transaction> transactionClass;
 
+	@Name("monitoring.enabled")
+	private boolean monitoringEnabled = false;
+
+	@Name("slow.threshold")
+	private long slowThreshold = 0;
+
+	@Name("synchronization.async")
+	private boolean synchronizationAsync = false;
+
 	public Class<? extends Transaction> getTransactionClass() {
 		return transactionClass;
 	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.transaction.monitoring.enabled</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> the duration and outcome of each transaction are
+	 *         recorded and exposed to the management extensions. If there is no value defined, returns the default
+	 *         value <code>false</code>
+	 */
+	public boolean isMonitoringEnabled() {
+		return monitoringEnabled;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.transaction.slow.threshold</i> in the
+	 *         <b>demoiselle.properties</b> file, the duration in milliseconds above which a transaction is logged as
+	 *         slow. If there is no value defined, returns the default value 0, which disables the log
+	 */
+	public long getSlowThreshold() {
+		return slowThreshold;
+	}
+
+	/**
+	 * @return the value defined for the key <i>frameworkdemoiselle.transaction.synchronization.async</i> in the
+	 *         <b>demoiselle.properties</b> file. When <code>true</code> the synchronizations are called after a commit
+	 *         in another thread, so the method that began the transaction doesn't wait for them. If there is no value
+	 *         defined, returns the default value <code>false</code>
+	 */
+	public boolean isSynchronizationAsync() {
+		return synchronizationAsync;
+	}
 }
@@ -51,6 +51,7 @@ import org.slf4j.Logger;
 import br.gov.frameworkdemoiselle.DemoiselleException;
 import br.gov.frameworkdemoiselle.context.CustomContext;
 import br.gov.frameworkdemoiselle.internal.bootstrap.CustomContextBootstrap;
+import br.gov.frameworkdemoiselle.internal.configuration.ContextConfig;
 import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
 import br.gov.frameworkdemoiselle.util.Beans;
 import br.gov.frameworkdemoiselle.util.ResourceBundle;
@@ -65,6 +66,16 @@ public abstract class AbstractCustomContext implements CustomContext {
 	
 	private transient ResourceBundle bundle;
 
+	private transient volatile ContextualStore contextualStore;
+
+	private final ContextMetrics metrics = new ContextMetrics();
+
+	private transient ContextConfig contextConfig;
+
+	private transient volatile Boolean monitoringEnabled;
+
+	private transient volatile Boolean passivationTracking;
+
 	protected AbstractCustomContext(final Class<? extends Annotation> scope) {
 		this.scope = scope;
 		this.active = false;
@@ -88,15 +99,18 @@ public abstract class AbstractCustomContext implements CustomContext {
 			throw new ContextNotActiveException();
 		}
 
-		String id = getContextualStore().putIfAbsentAndGetId(contextual);
+		int slot = getContextualStore().getSlot(contextual);
 		BeanStore store = getStore();
 		if (store!=null){
-			if (store.contains(id)) {
-				instance = (T) store.getInstance(id);
-			} 
-			else if (creationalContext!=null){
-				instance = contextual.create(creationalContext);
-				store.put(id, instance,creationalContext);
+			if (isMonitoringEnabled()){
+				metrics.track(store);
+			}
+
+			if (creationalContext!=null){
+				instance = store.getOrCreate(slot, contextual, creationalContext);
+			}
+			else{
+				instance = (T) store.getInstance(slot);
 			}
 		}
 		else{
@@ -145,7 +159,6 @@ public abstract class AbstractCustomContext implements CustomContext {
 				clearInstances();
 
 				getStore().clear();
-				getContextualStore().clear();
 			}
 
 			this.active = false;
@@ -156,20 +169,38 @@ public abstract class AbstractCustomContext implements CustomContext {
 		}
 	}
 	
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public void clearInstances(){
 		BeanStore store = getStore();
 		if (store!=null){
-			for (String id : store){
-				Contextual contextual = getContextualStore().getContextual(id);
-				Object instance = store.getInstance(id);
-				CreationalContext creationalContext = store.getCreationalContext(id);
-				
-				if (contextual!=null && instance!=null){
-					contextual.destroy(instance, creationalContext);
-				}
+			clearInstances(store);
+		}
+	}
+
+	/**
+	 * Destroys all instances held by the given store, which must be one of the stores of this context.
+	 */
+	@SuppressWarnings("rawtypes")
+	public void clearInstances(BeanStore store){
+		for (int slot : store){
+			Contextual contextual = getContextualStore().getContextual(slot);
+			
+			if (contextual!=null){
+				store.destroy(slot, contextual);
 			}
 		}
+
+		// Só stores rastreados pela monitoração entram nas métricas.
+		if (store.metrics == metrics){
+			metrics.untrack(store);
+		}
+	}
+
+	/**
+	 * @return The occupancy figures of this context, collected only when the key
+	 *         <i>frameworkdemoiselle.context.monitoring.enabled</i> is <code>true</code>.
+	 */
+	public ContextMetrics getMetrics(){
+		return metrics;
 	}
 	
 	@Override
@@ -180,6 +211,58 @@ public abstract class AbstractCustomContext implements CustomContext {
 	protected static BeanStore createStore() {
 		return new BeanStore();
 	}
+
+	/**
+	 * Creates a store to be kept in the HTTP session, which remembers whether its beans were accessed since it was
+	 * last serialized when the key <i>frameworkdemoiselle.context.passivation.tracking</i> is <code>true</code>.
+	 */
+	protected BeanStore createPassivatingStore() {
+		return new BeanStore(isPassivationTracking());
+	}
+
+	/*
+	 * ContextConfig é um bean @StaticScoped: lê-lo passa pelo get() do StaticContextImpl, que volta a consultar as
+	 * chaves deste contexto. Enquanto a leitura não termina as chaves valem false, o que encerra a recursão.
+	 */
+	private boolean isMonitoringEnabled() {
+		Boolean enabled = monitoringEnabled;
+
+		if (enabled == null) {
+			monitoringEnabled = Boolean.FALSE;
+
+			try {
+				enabled = getContextConfig().isMonitoringEnabled();
+			} finally {
+				monitoringEnabled = enabled;
+			}
+		}
+
+		return enabled;
+	}
+
+	private boolean isPassivationTracking() {
+		Boolean tracking = passivationTracking;
+
+		if (tracking == null) {
+			passivationTracking = Boolean.FALSE;
+
+			try {
+				tracking = getContextConfig().isPassivationTracking();
+			} finally {
+				passivationTracking = tracking;
+			}
+		}
+
+		return tracking;
+	}
+
+	private ContextConfig getContextConfig() {
+		if (contextConfig == null) {
+			contextConfig = Beans.getReference(ContextConfig.class);
+		}
+
+		return contextConfig;
+	}
 	
 	protected static ContextualStore createContextualStore() {
 		return new ContextualStore();
@@ -201,9 +284,25 @@ public abstract class AbstractCustomContext implements CustomContext {
 		return logger;
 	}
 	
+	/**
+	 * Binds this context to the {@link ContextualStore} shared by all custom contexts, so
+	 * the store doesn't need to be looked up on each {@link #get(Contextual, CreationalContext)} call.
+	 */
+	public void setContextualStore(ContextualStore contextualStore){
+		this.contextualStore = contextualStore;
+	}
+
 	protected ContextualStore getContextualStore(){
-		CustomContextBootstrap bootstrap = Beans.getReference(CustomContextBootstrap.class);
-		return bootstrap.getContextualStore();
+		ContextualStore store = this.contextualStore;
+
+		//Contextos registrados fora do CustomContextBootstrap são associados ao ContextualStore no primeiro acesso.
+		if (store==null){
+			CustomContextBootstrap bootstrap = Beans.getReference(CustomContextBootstrap.class);
+			store = bootstrap.getContextualStore();
+			this.contextualStore = store;
+		}
+
+		return store;
 	}
 	
 	@Override
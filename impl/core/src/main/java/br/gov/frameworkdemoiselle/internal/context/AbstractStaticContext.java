@@ -37,9 +37,8 @@
 package br.gov.frameworkdemoiselle.internal.context;
 
 import java.lang.annotation.Annotation;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import br.gov.frameworkdemoiselle.annotation.Priority;
 import br.gov.frameworkdemoiselle.annotation.StaticScoped;
@@ -61,7 +60,9 @@ import br.gov.frameworkdemoiselle.configuration.Configuration;
 @Priority(Priority.MIN_PRIORITY)
 public abstract class AbstractStaticContext extends AbstractCustomContext {
 
-	private final static Map<String, BeanStore> staticBeanStore = Collections.synchronizedMap(new HashMap<String, BeanStore>());
+	private final static ConcurrentMap<String, BeanStore> staticBeanStore = new ConcurrentHashMap<String, BeanStore>();
+
+	private volatile BeanStore store;
 	
 	/**
 	 * Constructs this context to control the provided scope
@@ -72,13 +73,25 @@ public abstract class AbstractStaticContext extends AbstractCustomContext {
 
 	@Override
 	protected BeanStore getStore() {
-		BeanStore store = staticBeanStore.get( this.getClass().getCanonicalName() );
-		if (store==null){
-			store = createStore();
-			staticBeanStore.put(this.getClass().getCanonicalName(), store);
+		BeanStore current = this.store;
+
+		//Instâncias da mesma classe de contexto compartilham o mesmo store. Ele é obtido
+		//uma única vez e a partir daí acessado diretamente, sem bloqueio.
+		if (current==null){
+			String key = this.getClass().getCanonicalName();
+			current = staticBeanStore.get(key);
+			if (current==null){
+				BeanStore created = createStore();
+				current = staticBeanStore.putIfAbsent(key, created);
+				if (current==null){
+					current = created;
+				}
+			}
+
+			this.store = current;
 		}
 		
-		return store;
+		return current;
 	}
 	
 	@Override
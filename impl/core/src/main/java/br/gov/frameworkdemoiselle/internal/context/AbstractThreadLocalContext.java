@@ -60,6 +60,8 @@ import java.lang.annotation.Annotation;
 public abstract class AbstractThreadLocalContext extends AbstractCustomContext {
 
 	private final ThreadLocal<BeanStore> threadLocalBeans = new ThreadLocal<BeanStore>();
+
+	private final ThreadLocal<Boolean> threadActive = new ThreadLocal<Boolean>();
 	
 	AbstractThreadLocalContext(final Class<? extends Annotation> scope) {
 		super(scope);
@@ -78,4 +80,77 @@ public abstract class AbstractThreadLocalContext extends AbstractCustomContext {
 
 		return this.threadLocalBeans.get();
 	}
+
+	/**
+	 * Besides the activation made by {@link #activate()}, which is seen by all threads, this context is also active for
+	 * threads activated by {@link #activateForCurrentThread()}.
+	 */
+	@Override
+	public boolean isActive() {
+		return super.isActive() || this.threadActive.get() != null;
+	}
+
+	/**
+	 * Activates this context only for the calling thread, leaving the other threads untouched. If the calling thread
+	 * has no store yet a new one is bound to it. Used by worker threads that need the scope without making it visible,
+	 * as a second active context for the same scope, to threads where the container already provides one.
+	 * 
+	 * @return <code>true</code> if the context was activated, <code>false</code> if it was already active for the
+	 *         calling thread.
+	 */
+	public boolean activateForCurrentThread() {
+		if (isActive()) {
+			return false;
+		}
+
+		if (this.threadLocalBeans.get() == null) {
+			this.threadLocalBeans.set(createStore());
+		}
+
+		this.threadActive.set(Boolean.TRUE);
+		return true;
+	}
+
+	/**
+	 * Undoes {@link #activateForCurrentThread()}. The store bound to the calling thread is kept, so callers that own it
+	 * must destroy its beans with {@link #clearInstances()} and unbind it with {@link #bindStore(BeanStore)}.
+	 */
+	public void deactivateForCurrentThread() {
+		this.threadActive.remove();
+	}
+
+	/**
+	 * Besides destroying the beans of the calling thread, removes its store from the thread, so pooled threads
+	 * don't keep empty stores after the context is deactivated.
+	 */
+	@Override
+	public void deactivate() {
+		super.deactivate();
+		this.threadLocalBeans.remove();
+	}
+
+	/**
+	 * @return The store bound to the calling thread, or <code>null</code> if the calling thread has no store yet.
+	 */
+	public BeanStore getBoundStore() {
+		return this.threadLocalBeans.get();
+	}
+
+	/**
+	 * Binds a store to the calling thread, allowing beans created in one thread to be used in another.
+	 * 
+	 * @param store The store to bind, or <code>null</code> to unbind the current store.
+	 * @return The store previously bound to the calling thread, or <code>null</code> if there was none.
+	 */
+	public BeanStore bindStore(BeanStore store) {
+		BeanStore previous = this.threadLocalBeans.get();
+
+		if (store == null) {
+			this.threadLocalBeans.remove();
+		} else {
+			this.threadLocalBeans.set(store);
+		}
+
+		return previous;
+	}
 }
@@ -1,44 +1,365 @@
 package br.gov.frameworkdemoiselle.internal.context;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
 
+import br.gov.frameworkdemoiselle.internal.bootstrap.CustomContextBootstrap;
+import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+/**
+ * Keeps the instances of a scope, indexed by the slot {@link ContextualStore} assigned to each contextual.
+ * Each slot holds a single entry with both the instance and its {@link CreationalContext}, so they are
+ * always stored together. Reading an instance is an array read, with no hashing and no locking.
+ * <p>
+ * Instances are created through {@link #getOrCreate(int, Contextual, CreationalContext)}, which guarantees
+ * that threads racing on the first access to a contextual get the same, single instance. Only threads
+ * creating the same contextual wait for each other.
+ * <p>
+ * Slots are only valid inside the running JVM, so the serialized form keeps the passivation ID of each
+ * contextual instead of its slot. Instances of contextuals that are not
+ * {@link javax.enterprise.inject.spi.PassivationCapable} are still written with their slot, restorable only in the
+ * same JVM, except by stores with dirty tracking: those are meant to be replicated, so such instances are left out
+ * and a warning is logged for each one.
+ * <p>
+ * A store created with dirty tracking enabled remembers whether any of its instances was accessed since it was last
+ * serialized. Every call to a normal scoped bean goes through its client proxy, which looks the instance up in this
+ * store, so a store whose instances were not accessed could not have changed. Stores kept in session attributes of
+ * their own use {@link #isChanged()} to set the attribute again only when needed, so containers that replicate only
+ * the attributes set during the request send only those stores.
+ *
+ * @author serpro
+ */
 @SuppressWarnings("rawtypes")
-public class BeanStore implements Iterable<String>,Serializable {
-	
+public class BeanStore implements Iterable<Integer>,Externalizable {
+
 	private static final long serialVersionUID = 1L;
-	
-	private ConcurrentMap<String, Object> instanceCache = new ConcurrentHashMap<String, Object>();
-	private ConcurrentMap<String, CreationalContext> creationalCache = new ConcurrentHashMap<String, CreationalContext>();
-	
-	public <T> void put(String id, T instance,CreationalContext<T> creationalContext){
-		instanceCache.putIfAbsent(id, instance);
-		creationalCache.putIfAbsent(id, creationalContext);
+
+	private transient volatile AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<Entry>(0);
+
+	private boolean dirtyTracking;
+
+	//Um store novo ainda não foi serializado, por isso começa alterado.
+	private transient volatile boolean changed = true;
+
+	private transient volatile boolean closed;
+
+	transient volatile ContextMetrics metrics;
+
+	public BeanStore() {
+		this(false);
+	}
+
+	/**
+	 * @param dirtyTracking <code>true</code> to remember whether the instances were accessed since the
+	 * last serialization.
+	 */
+	public BeanStore(boolean dirtyTracking) {
+		this.dirtyTracking = dirtyTracking;
+	}
+
+	/**
+	 * Returns the instance stored for the contextual, creating and storing it if this is the first access.
+	 * Concurrent first accesses create exactly one instance.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getOrCreate(int slot, Contextual<T> contextual, CreationalContext<T> creationalContext){
+		Entry entry = getEntry(slot);
+		Object instance = entry != null ? entry.instance : null;
+
+		if (instance != null) {
+			markAccessed();
+		}
+		else {
+			if (entry == null) {
+				entry = getOrAddEntry(slot);
+			}
+
+			boolean created = false;
+
+			//Bloqueia apenas as threads que criam o mesmo contextual.
+			synchronized (entry) {
+				instance = entry.instance;
+				if (instance == null) {
+					instance = contextual.create(creationalContext);
+					entry.creationalContext = creationalContext;
+					entry.instance = instance;
+					markAccessed();
+					created = true;
+
+					ContextMetrics current = metrics;
+					if (current != null) {
+						current.instanceCreated();
+					}
+				}
+			}
+
+			//A thread que fechou o store pode não ter visto esta instância, então ela é destruída aqui.
+			if (created && closed) {
+				destroy(slot, contextual);
+			}
+		}
+
+		return (T) instance;
+	}
+
+	public <T> void put(int slot, T instance,CreationalContext<T> creationalContext){
+		Entry entry = getOrAddEntry(slot);
+
+		synchronized (entry) {
+			if (entry.instance == null) {
+				entry.creationalContext = creationalContext;
+				entry.instance = instance;
+				markAccessed();
+			}
+		}
+	}
+
+	public Object getInstance(int slot){
+		Entry entry = getEntry(slot);
+		if (entry == null) {
+			return null;
+		}
+
+		markAccessed();
+		return entry.instance;
+	}
+
+	public boolean isDirtyTracking(){
+		return dirtyTracking;
+	}
+
+	/**
+	 * @return <code>false</code> if this store tracks its accesses and none of its instances was accessed since it
+	 *         was last serialized, <code>true</code> otherwise.
+	 */
+	public boolean isChanged(){
+		return !dirtyTracking || changed;
+	}
+
+	private void markAccessed() {
+		//Evita escrever no campo volatile quando o store já está marcado.
+		if (dirtyTracking && !changed) {
+			changed = true;
+		}
+	}
+
+	/**
+	 * Removes the instance stored in the slot and destroys it. Each instance is destroyed only once, even when
+	 * several threads destroy the same slot.
+	 * 
+	 * @return <code>true</code> if there was an instance to destroy.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean destroy(int slot, Contextual contextual){
+		Entry entry = getEntry(slot);
+		if (entry == null) {
+			return false;
+		}
+
+		Object instance;
+		CreationalContext creationalContext;
+
+		synchronized (entry) {
+			instance = entry.instance;
+			creationalContext = entry.creationalContext;
+			entry.instance = null;
+			entry.creationalContext = null;
+		}
+
+		if (instance == null) {
+			return false;
+		}
+
+		contextual.destroy(instance, creationalContext);
+
+		ContextMetrics current = metrics;
+		if (current != null) {
+			current.instanceDestroyed();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Marks this store as discarded while other threads may still be using it. Instances those threads create
+	 * from now on are destroyed as soon as they are created, so none is left without being destroyed. The
+	 * instances created before must still be destroyed by the owner of the store.
+	 */
+	public void close(){
+		closed = true;
+	}
+
+	public boolean isClosed(){
+		return closed;
 	}
-	
-	public Object getInstance(String id){
-		return instanceCache.get(id);
+
+	public CreationalContext getCreationalContext(int slot){
+		Entry entry = getEntry(slot);
+		return entry != null ? entry.creationalContext : null;
 	}
-	
-	public CreationalContext getCreationalContext(String id){
-		return creationalCache.get(id);
+
+	public synchronized void clear(){
+		entries = new AtomicReferenceArray<Entry>(0);
 	}
-	
-	public void clear(){
-		instanceCache.clear();
-		creationalCache.clear();
+
+	public boolean contains(int slot){
+		Entry entry = getEntry(slot);
+		return entry != null && entry.instance != null;
 	}
-	
-	public boolean contains(String id){
-		return instanceCache.containsKey(id);
+
+	/**
+	 * @return How many instances this store holds.
+	 */
+	public int size(){
+		AtomicReferenceArray<Entry> current = entries;
+		int size = 0;
+
+		for (int slot = 0; slot < current.length(); slot++) {
+			Entry entry = current.get(slot);
+			if (entry != null && entry.instance != null) {
+				size++;
+			}
+		}
+
+		return size;
 	}
 
+	/**
+	 * @return The slots that hold an instance when this method is called.
+	 */
 	@Override
-	public Iterator<String> iterator() {
-		return instanceCache.keySet().iterator();
+	public Iterator<Integer> iterator() {
+		AtomicReferenceArray<Entry> current = entries;
+		List<Integer> slots = new ArrayList<Integer>();
+
+		for (int slot = 0; slot < current.length(); slot++) {
+			Entry entry = current.get(slot);
+			if (entry != null && entry.instance != null) {
+				slots.add(slot);
+			}
+		}
+
+		return slots.iterator();
+	}
+
+	private Entry getEntry(int slot) {
+		AtomicReferenceArray<Entry> current = entries;
+		return slot < current.length() ? current.get(slot) : null;
+	}
+
+	private synchronized Entry getOrAddEntry(int slot) {
+		ensureCapacity(slot + 1);
+
+		Entry entry = entries.get(slot);
+		if (entry == null) {
+			entry = new Entry();
+			entries.set(slot, entry);
+		}
+
+		return entry;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (entries.length() < capacity) {
+			//Cresce além do necessário para que os próximos contextuals não exijam nova cópia.
+			int length = Math.max(capacity, entries.length() * 2);
+			AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<Entry>(length);
+
+			for (int slot = 0; slot < entries.length(); slot++) {
+				grown.set(slot, entries.get(slot));
+			}
+
+			entries = grown;
+		}
+	}
+
+	private static ContextualStore getContextualStore() {
+		return Beans.getReference(CustomContextBootstrap.class).getContextualStore();
+	}
+
+	@Override
+	public synchronized void writeExternal(ObjectOutput out) throws IOException {
+		//Desmarca antes de serializar: um acesso concorrente volta a marcar o store.
+		changed = false;
+		out.writeBoolean(dirtyTracking);
+
+		ContextualStore contextualStore = getContextualStore();
+		for (int slot = 0; slot < entries.length(); slot++) {
+			String id = contextualStore.getPassivationId(slot);
+			Entry entry = entries.get(slot);
+
+			if (entry == null || entry.instance == null) {
+				continue;
+			}
+
+			//Somente contextuals PassivationCapable podem ser recuperados em outra JVM. Sem rastreamento, os demais
+			//continuam sendo gravados como antes, identificados pelo slot, que só vale na mesma JVM.
+			if (id != null || !dirtyTracking) {
+				//As instâncias são gravadas no mesmo stream, assim objetos compartilhados entre elas continuam únicos.
+				out.writeObject(id != null ? id : Integer.valueOf(slot));
+				out.writeObject(entry.instance);
+				out.writeObject(entry.creationalContext);
+
+			} else {
+				LoggerProducer.create(BeanStore.class).warn(
+						new ResourceBundle("demoiselle-core-bundle", Locale.getDefault()).getString(
+								"bean-store-instance-not-serialized", entry.instance.getClass().getName()));
+			}
+		}
+
+		out.writeObject(null);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		dirtyTracking = in.readBoolean();
+		entries = new AtomicReferenceArray<Entry>(0);
+
+		ContextualStore contextualStore = null;
+		for (Object key = in.readObject(); key != null; key = in.readObject()) {
+			Object instance = in.readObject();
+			CreationalContext creationalContext = (CreationalContext) in.readObject();
+
+			if (key instanceof Integer) {
+				put((Integer) key, instance, creationalContext);
+				continue;
+			}
+
+			if (contextualStore == null) {
+				contextualStore = getContextualStore();
+			}
+
+			Bean<?> contextual = Beans.getBeanManager().getPassivationCapableBean((String) key);
+			if (contextual != null) {
+				put(contextualStore.getSlot(contextual), instance, creationalContext);
+			}
+		}
+
+		//Recém-lido, o store é igual à sua forma serializada até o próximo acesso.
+		changed = false;
+	}
+
+	/*
+	 * Instância e CreationalContext de um mesmo contextual, sempre armazenados juntos.
+	 */
+	private static final class Entry {
+
+		private volatile Object instance;
+
+		private volatile CreationalContext creationalContext;
 	}
 }
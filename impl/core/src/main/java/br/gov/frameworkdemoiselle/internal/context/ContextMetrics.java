@@ -0,0 +1,249 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.context;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Occupancy figures of a single {@link AbstractCustomContext}: the stores in use, the instances they hold and how many
+ * instances were created and destroyed.
+ * <p>
+ * A store is counted from the first bean it gives until its instances are destroyed. Stores are kept through weak
+ * references, so a store abandoned without being cleared (a thread bound store of a thread that ended, for instance)
+ * stops being counted once it is garbage collected. A store that stays alive for a long time without being cleared
+ * usually means a context that was activated in a pooled thread and never deactivated.
+ * 
+ * @author serpro
+ */
+public class ContextMetrics {
+
+	private final long startTime = System.currentTimeMillis();
+
+	private final AtomicLong createdInstances = new AtomicLong();
+
+	private final AtomicLong destroyedInstances = new AtomicLong();
+
+	private final AtomicLong createdStores = new AtomicLong();
+
+	private final AtomicLong destroyedStores = new AtomicLong();
+
+	private final ConcurrentMap<StoreReference, Boolean> liveStores = new ConcurrentHashMap<StoreReference, Boolean>();
+
+	private final ReferenceQueue<BeanStore> collectedStores = new ReferenceQueue<BeanStore>();
+
+	/*
+	 * Chamado a cada acesso a um bean quando a monitoração está habilitada. Só altera o mapa na primeira vez que o
+	 * store é usado, e sem bloqueio, pois o mapa é compartilhado por todas as requisições.
+	 */
+	void track(BeanStore store) {
+		if (store.metrics != this) {
+			StoreReference reference = new StoreReference(store, collectedStores, Thread.currentThread().getName());
+
+			if (liveStores.putIfAbsent(reference, Boolean.TRUE) == null) {
+				createdStores.incrementAndGet();
+			}
+
+			store.metrics = this;
+			expungeCollectedStores();
+		}
+	}
+
+	void untrack(BeanStore store) {
+		if (store.metrics == this) {
+			store.metrics = null;
+		}
+
+		if (liveStores.remove(new StoreReference(store, null, null)) != null) {
+			destroyedStores.incrementAndGet();
+		}
+	}
+
+	void instanceCreated() {
+		createdInstances.incrementAndGet();
+	}
+
+	void instanceDestroyed() {
+		destroyedInstances.incrementAndGet();
+	}
+
+	/**
+	 * @return How many stores are in use now.
+	 */
+	public int getActiveStores() {
+		expungeCollectedStores();
+		return liveStores.size();
+	}
+
+	/**
+	 * @return How many instances the stores in use hold now.
+	 */
+	public long getInstances() {
+		long instances = 0;
+
+		for (BeanStore store : getLiveStores()) {
+			instances += store.size();
+		}
+
+		return instances;
+	}
+
+	public long getCreatedInstances() {
+		return createdInstances.get();
+	}
+
+	public long getDestroyedInstances() {
+		return destroyedInstances.get();
+	}
+
+	public long getCreatedStores() {
+		return createdStores.get();
+	}
+
+	public long getDestroyedStores() {
+		return destroyedStores.get();
+	}
+
+	/**
+	 * @return Instances created per second, on average, since the context was created.
+	 */
+	public double getCreationRate() {
+		return perSecond(createdInstances.get());
+	}
+
+	/**
+	 * @return Instances destroyed per second, on average, since the context was created.
+	 */
+	public double getDestructionRate() {
+		return perSecond(destroyedInstances.get());
+	}
+
+	/**
+	 * @param maxAge
+	 *            Age in milliseconds.
+	 * @return A description of each store in use for longer than the given age: its age, how many instances it holds
+	 *         and the name of the thread that first used it.
+	 */
+	public List<String> getStoresOlderThan(long maxAge) {
+		List<String> result = new ArrayList<String>();
+		long now = System.currentTimeMillis();
+
+		for (StoreReference reference : liveStores.keySet()) {
+			BeanStore store = reference.get();
+			long age = now - reference.creationTime;
+
+			if (store != null && age > maxAge) {
+				result.add("age=" + age + "ms, instances=" + store.size() + ", thread=" + reference.threadName);
+			}
+		}
+
+		return result;
+	}
+
+	private List<BeanStore> getLiveStores() {
+		List<BeanStore> result = new ArrayList<BeanStore>();
+
+		for (StoreReference reference : liveStores.keySet()) {
+			BeanStore store = reference.get();
+
+			if (store != null) {
+				result.add(store);
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * Remove do mapa os stores abandonados sem serem limpos e já coletados.
+	 */
+	private void expungeCollectedStores() {
+		Reference<? extends BeanStore> reference;
+
+		while ((reference = collectedStores.poll()) != null) {
+			liveStores.remove(reference);
+		}
+	}
+
+	private double perSecond(long count) {
+		long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+		return count * 1000D / elapsed;
+	}
+
+	/*
+	 * Referência fraca comparada pela identidade do store, para não impedir a coleta de stores abandonados.
+	 */
+	private static final class StoreReference extends WeakReference<BeanStore> {
+
+		private final int hash;
+
+		private final long creationTime = System.currentTimeMillis();
+
+		private final String threadName;
+
+		private StoreReference(BeanStore store, ReferenceQueue<BeanStore> queue, String threadName) {
+			super(store, queue);
+			this.hash = System.identityHashCode(store);
+			this.threadName = threadName;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (other == this) {
+				return true;
+			}
+
+			if (!(other instanceof StoreReference)) {
+				return false;
+			}
+
+			BeanStore store = get();
+			return store != null && store == ((StoreReference) other).get();
+		}
+	}
+}
@@ -3,88 +3,127 @@ package br.gov.frameworkdemoiselle.internal.context;
 import java.io.Serializable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.inject.spi.PassivationCapable;
 
 
+/**
+ * Assigns a small integer slot to each contextual the first time it is seen. Slots never change while the application
+ * is running, so a {@link BeanStore} can keep its instances in an array indexed by slot.
+ *
+ * @author serpro
+ */
 @SuppressWarnings("rawtypes")
 public class ContextualStore implements Serializable {
-	
+
 	private static final long serialVersionUID = 1L;
-	
-	private static final String PREFIX = ContextualStore.class.getCanonicalName() + "#";
-	
-	private final AtomicInteger idGenerator = new AtomicInteger();
-	
+
 	/*
 	 * BASEADO NA IMPLEMENTAÇÃO DE CDI DO WELD
-	 * 
+	 *
 	 * Contextuals (instâncias de Bean) implementam a interface PassivationCapable quando são capazes
 	 * de participar em um cluster de servidores, dessa forma o mesmo Bean pode ser usado para criar instâncias
 	 * em todos os servidores e o ciclo de vida é síncrono
-	 * 
+	 *
 	 * Se o contextual não implementar PassivationCapable esse suporte não é possível. Por isso o WELD armazena
 	 * separadamente contextuals que implementam PassivationCapable e que não implementam.
-	 * 
+	 *
 	 * A implementação abaixo foi baseada nesse comportamento, afim de evitar problemas em aplicações empacotadas em EAR
-	 * e servidores de aplicação em cluster.
-	 * 
+	 * e servidores de aplicação em cluster. Contextuals PassivationCapable são identificados pelo seu ID, os demais
+	 * pela própria instância. O slot só vale dentro desta JVM, por isso um BeanStore serializado grava o ID
+	 * do contextual e não o slot.
 	 */
-	private final ConcurrentMap<String, Contextual> idToContextual = new ConcurrentHashMap<String, Contextual>();
-	private final ConcurrentMap<Contextual, String> contextualToId = new ConcurrentHashMap<Contextual, String>();
-	private final ConcurrentMap<String, Contextual> passivableIdToContextual = new ConcurrentHashMap<String, Contextual>();
-	
+	private transient final ConcurrentMap<Object, Integer> keyToSlot = new ConcurrentHashMap<Object, Integer>();
+
+	private transient volatile AtomicReferenceArray<Contextual> slotToContextual = new AtomicReferenceArray<Contextual>(0);
+
+	private transient volatile int size;
+
 	/**
-	 * Return an unique ID for the given contextual. If it's the first time
-	 * this contextual is accessed, registers the contextual for latter retrieval. 
-	 * 
-	 * @param contextual The contextual to generate an ID
-	 * @return The unique ID for the contextual
+	 * Return the slot of the given contextual. If it's the first time
+	 * this contextual is accessed, assigns the next free slot to it.
+	 *
+	 * @param contextual The contextual to get the slot for
+	 * @return The slot of the contextual, from zero to {@link #size()} - 1
 	 */
-	public String putIfAbsentAndGetId(Contextual contextual){
-		String returnedId;
-		
-		if (contextual instanceof PassivationCapable){
-			returnedId = ((PassivationCapable)contextual).getId();
-			passivableIdToContextual.putIfAbsent(returnedId, contextual);
-		}
-		else{
-			returnedId = contextualToId.get(contextual);
-			if (returnedId==null){
-				synchronized (contextual) {
-					//Esse código é uma implementação de performance. Se já existia
-					//ID para um contextual, retornamos. Do contrário precisamos fazer uma operação threadsafe
-					//que será cara. Então separamos a possibilide do ID já existir (a mais comum) fora do bloco
-					//synchronized, mas se precisarmos entrar no bloco precisamos perguntar pelo ID
-					//novamente, caso outra thread tenha criado o ID entre a primeira pergunta e a geração do ID.
-					returnedId = contextualToId.get(contextual);
-					if (returnedId==null){
-						returnedId = new StringBuffer().append(PREFIX).append(idGenerator.incrementAndGet()).toString();
-						idToContextual.put(returnedId, contextual);
-						contextualToId.put(contextual, returnedId);
-					}
+	public int getSlot(Contextual contextual){
+		Object key = getKey(contextual);
+		Integer slot = keyToSlot.get(key);
+
+		if (slot==null){
+			//Caminho raro: só ocorre no primeiro acesso a cada contextual. Perguntamos novamente
+			//dentro do bloco, caso outra thread tenha atribuído o slot entre as duas perguntas.
+			synchronized (this) {
+				slot = keyToSlot.get(key);
+				if (slot==null){
+					slot = size;
+					ensureCapacity(slot + 1);
+					slotToContextual.set(slot, contextual);
+
+					size = slot + 1;
+					keyToSlot.put(key, slot);
 				}
 			}
 		}
-		
-		return returnedId;
+
+		return slot;
 	}
-	
-	public Contextual getContextual(String id){
-		if (id.startsWith(PREFIX)){
-			return idToContextual.get(id);
-		}
-		else{
-			return passivableIdToContextual.get(id);
+
+	/**
+	 * @return The contextual that owns the given slot, or <code>null</code> if the slot was not assigned.
+	 */
+	public Contextual getContextual(int slot){
+		AtomicReferenceArray<Contextual> current = slotToContextual;
+		return slot >= 0 && slot < current.length() ? current.get(slot) : null;
+	}
+
+	/**
+	 * @return The passivation ID of the contextual that owns the given slot, or <code>null</code> if it
+	 * is not {@link PassivationCapable}.
+	 */
+	public String getPassivationId(int slot){
+		Contextual contextual = getContextual(slot);
+		return contextual instanceof PassivationCapable ? ((PassivationCapable)contextual).getId() : null;
+	}
+
+	/**
+	 * @return How many slots were assigned so far.
+	 */
+	public int size(){
+		return size;
+	}
+
+	public synchronized void clear(){
+		keyToSlot.clear();
+		slotToContextual = new AtomicReferenceArray<Contextual>(0);
+		size = 0;
+	}
+
+	private void ensureCapacity(int capacity) {
+		AtomicReferenceArray<Contextual> current = slotToContextual;
+
+		if (current.length() < capacity) {
+			//Cresce além do necessário, como o BeanStore, para que os próximos contextuals não exijam nova cópia.
+			int length = Math.max(capacity, current.length() * 2);
+			AtomicReferenceArray<Contextual> grown = new AtomicReferenceArray<Contextual>(length);
+
+			for (int slot = 0; slot < current.length(); slot++) {
+				grown.set(slot, current.get(slot));
+			}
+
+			slotToContextual = grown;
 		}
 	}
-	
-	public void clear(){
-		idToContextual.clear();
-		contextualToId.clear();
-		passivableIdToContextual.clear();
+
+	private static Object getKey(Contextual contextual){
+		return contextual instanceof PassivationCapable ? ((PassivationCapable)contextual).getId() : contextual;
+	}
+
+	private Object readResolve(){
+		//Os slots não são válidos em outra JVM, a instância desserializada começa vazia.
+		return new ContextualStore();
 	}
 
 }
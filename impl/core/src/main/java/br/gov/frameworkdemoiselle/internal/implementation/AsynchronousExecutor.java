@@ -0,0 +1,194 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+
+import br.gov.frameworkdemoiselle.context.ContextPropagatingExecutorService;
+import br.gov.frameworkdemoiselle.context.ContextPropagatingExecutorService.Mode;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.internal.configuration.AsynchronousConfig;
+import br.gov.frameworkdemoiselle.internal.context.AbstractThreadLocalContext;
+import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+/**
+ * Runs the calls to {@link br.gov.frameworkdemoiselle.asynchronous.Asynchronous} methods. The pool is created on the
+ * first call, with the size and queue capacity defined in {@link AsynchronousConfig}. Calls made when all threads are
+ * busy and the queue is full are rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+ * <p>
+ * Each call runs with a request context of its own, destroyed when the call ends. When the calling thread has an active
+ * request context the other thread bound contexts are propagated as in {@link Mode#CHILD_REQUEST}. Otherwise the
+ * request context is activated only for the worker thread, so threads where the container provides its own request
+ * context never see two active contexts for the same scope.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class AsynchronousExecutor implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient Logger logger;
+
+	private transient ResourceBundle bundle;
+
+	private transient ExecutorService executor;
+
+	/**
+	 * Runs the task in the pool.
+	 * 
+	 * @return the {@link Future} that completes when the task ends.
+	 */
+	public <T> Future<T> submit(final Callable<T> task) {
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		return getExecutor().submit(new Callable<T>() {
+
+			@Override
+			public T call() throws Exception {
+				Thread current = Thread.currentThread();
+				ClassLoader previous = current.getContextClassLoader();
+				current.setContextClassLoader(classLoader);
+
+				AbstractThreadLocalContext requestContext = activateRequestContext();
+
+				try {
+					return task.call();
+
+				} finally {
+					// Os beans de requisição criados nesta thread são descartados junto com a chamada.
+					if (requestContext != null) {
+						try {
+							requestContext.clearInstances();
+
+						} finally {
+							requestContext.deactivateForCurrentThread();
+							requestContext.bindStore(null);
+						}
+					}
+
+					current.setContextClassLoader(previous);
+				}
+			}
+		});
+	}
+
+	/*
+	 * Quando a thread que chamou o método não tinha contexto de requisição ativo, o contexto é ativado apenas para a
+	 * thread do pool, sem alterar o estado visto pelas demais threads.
+	 */
+	private AbstractThreadLocalContext activateRequestContext() {
+		RequestContext requestContext = Beans.getReference(RequestContext.class);
+
+		if (requestContext instanceof AbstractThreadLocalContext) {
+			AbstractThreadLocalContext context = (AbstractThreadLocalContext) requestContext;
+
+			if (context.activateForCurrentThread()) {
+				return context;
+			}
+		}
+
+		return null;
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			AsynchronousConfig config = Beans.getReference(AsynchronousConfig.class);
+			int poolSize = Math.max(1, config.getPoolSize());
+			int queueCapacity = Math.max(1, config.getQueueCapacity());
+
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+
+						private final AtomicInteger counter = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "demoiselle-asynchronous-" + counter.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+
+			executor = new ContextPropagatingExecutorService(pool, Mode.CHILD_REQUEST);
+			getLogger().debug(getBundle().getString("asynchronous-pool-created", poolSize, queueCapacity));
+		}
+
+		return executor;
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private Logger getLogger() {
+		if (logger == null) {
+			logger = LoggerProducer.create(AsynchronousExecutor.class);
+		}
+
+		return logger;
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
+		}
+
+		return bundle;
+	}
+}
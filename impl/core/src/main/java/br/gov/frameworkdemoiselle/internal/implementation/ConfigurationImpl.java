@@ -36,30 +36,77 @@
  */
 package br.gov.frameworkdemoiselle.internal.implementation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import br.gov.frameworkdemoiselle.annotation.Ignore;
 import br.gov.frameworkdemoiselle.util.Beans;
 
-public class ConfigurationImpl implements Serializable {
+/**
+ * Template of the proxies generated for {@link br.gov.frameworkdemoiselle.configuration.Configuration} classes. Every
+ * delegated method of the proxy first checks the volatile {@code loaded} flag and only enters the synchronized
+ * {@link #load(Object)} while the object is not yet loaded, so once loaded a configuration read costs a volatile read
+ * and no locking.
+ * <p>
+ * When the configuration reload is enabled, a reloaded instance is published through
+ * {@link #setCurrentInstance(Object)} and from then on the proxy delegates its methods to that instance. A deserialized
+ * proxy is loaded again on its first use, so it doesn't keep the values it had when it was serialized.
+ * <p>
+ * The warm-up done at deployment calls {@link #ensureLoaded()} to load the proxy before its first use.
+ * 
+ * @author SERPRO
+ */
+public class ConfigurationImpl implements LoadableConfiguration, ReloadableConfiguration, Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Ignore
-	private boolean loaded = false;
+	private volatile boolean loaded = false;
 
-	@SuppressWarnings("unused")
-	private synchronized void load(Object instance) throws Throwable {
-		if (!loaded) {
-			loaded = true;
+	@Ignore
+	private transient boolean loading = false;
+
+	@Ignore
+	private transient volatile Object current;
+
+	private synchronized void load(Object instance) {
+		// O flag "loading" evita recursão quando o próprio carregamento (ex: validação) chama um getter do proxy na
+		// mesma thread. Só marcamos "loaded" após o carregamento completo, assim outras threads nunca enxergam um
+		// objeto carregado pela metade através do caminho rápido.
+		if (!loaded && !loading) {
+			loading = true;
 
 			try {
-				Beans.getReference(ConfigurationLoader.class).load(instance);
+				ConfigurationLoader loader = Beans.getReference(ConfigurationLoader.class);
+				loader.load(instance);
+				loaded = true;
 
-			} catch (Throwable cause) {
-				loaded = false;
-				throw cause;
+				Beans.getReference(ConfigurationReloader.class).register(this, loader);
+
+			} finally {
+				loading = false;
 			}
 		}
 	}
+
+	@Override
+	public void ensureLoaded() {
+		if (!loaded) {
+			load(this);
+		}
+	}
+
+	@Override
+	public void setCurrentInstance(Object instance) {
+		this.current = instance;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+
+		// A instância recarregada não é serializada e o proxy restaurado não está registrado para recarga, por isso
+		// ele é carregado de novo no primeiro uso, com os valores atuais do recurso.
+		loaded = false;
+	}
 }
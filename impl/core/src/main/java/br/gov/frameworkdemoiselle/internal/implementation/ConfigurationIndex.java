@@ -0,0 +1,107 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import br.gov.frameworkdemoiselle.configuration.ConfigType;
+import br.gov.frameworkdemoiselle.configuration.Configuration;
+
+/**
+ * Metadata of a {@link Configuration} class generated at compile time by the Demoiselle annotation processor
+ * (<i>demoiselle-processor</i>). The index of a class named <code>Foo</code> is the class
+ * <code>Foo_$$_DemoiselleIndex</code>, in the same package. When it is present, {@link ConfigurationLoader} takes the
+ * resource, the prefix and the keys of the class from the index instead of scanning the class and its annotations, and
+ * reads and writes through the index every field the generated code can reach, without reflection.
+ * <p>
+ * Fields are identified by their position, in the order returned by {@link #getFieldNames()}: the fields of the class
+ * first, then the fields of each superclass.
+ * 
+ * @author SERPRO
+ */
+public interface ConfigurationIndex {
+
+	/**
+	 * Suffix appended to the name of a configuration class to name its index.
+	 */
+	String INDEX_SUFFIX = "_$$_DemoiselleIndex";
+
+	/**
+	 * Suffix appended to the name of a configuration class to name its proxy, generated at compile time or, when
+	 * absent, at runtime.
+	 */
+	String PROXY_SUFFIX = "_$$_DemoiselleProxy";
+
+	/**
+	 * @return the value of {@link Configuration#type()}.
+	 */
+	ConfigType getType();
+
+	/**
+	 * @return the value of {@link Configuration#resource()}, without the extension.
+	 */
+	String getResource();
+
+	/**
+	 * @return the value of {@link Configuration#prefix()}, as declared.
+	 */
+	String getPrefix();
+
+	/**
+	 * @return the names of all the non static fields of the class.
+	 */
+	String[] getFieldNames();
+
+	/**
+	 * @return the binary name of the class declaring each field.
+	 */
+	String[] getDeclaringClassNames();
+
+	/**
+	 * @return the key of each field, or <code>null</code> for the fields annotated with
+	 *         {@link br.gov.frameworkdemoiselle.annotation.Ignore}.
+	 */
+	String[] getKeys();
+
+	/**
+	 * @return <code>true</code> if the field can be read and written through {@link #getValue(Object, int)} and
+	 *         {@link #setValue(Object, int, Object)}. The other fields must be accessed by reflection.
+	 */
+	boolean isAccessible(int field);
+
+	Object getValue(Object instance, int field);
+
+	void setValue(Object instance, int field, Object value);
+}
@@ -0,0 +1,102 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * Sorted index of the keys of a {@link Configuration}, allowing the keys that start with a given prefix to be found
+ * without iterating over all the keys of the configuration.
+ * <p>
+ * The index of each {@link Configuration} object is built once, on the first request, and kept while the object is
+ * reachable. Configuration resources are parsed once and shared (see {@link ConfigurationResourceCache}), so every
+ * extractor of every configuration class reading the same resource shares the same index.
+ * 
+ * @author SERPRO
+ */
+public final class ConfigurationKeyIndex {
+
+	private static final Map<Configuration, ConfigurationKeyIndex> indexes = Collections
+			.synchronizedMap(new WeakHashMap<Configuration, ConfigurationKeyIndex>());
+
+	private final TreeSet<String> keys;
+
+	private ConfigurationKeyIndex(Configuration configuration) {
+		this.keys = new TreeSet<String>();
+
+		for (Iterator<String> iter = configuration.getKeys(); iter.hasNext();) {
+			this.keys.add(iter.next());
+		}
+	}
+
+	/**
+	 * @return the index of the keys of the given configuration, built on the first call for that configuration.
+	 */
+	public static ConfigurationKeyIndex getIndex(Configuration configuration) {
+		ConfigurationKeyIndex index = indexes.get(configuration);
+
+		if (index == null) {
+			index = new ConfigurationKeyIndex(configuration);
+			indexes.put(configuration, index);
+		}
+
+		return index;
+	}
+
+	/**
+	 * @return the keys that start with the given prefix, in ascending order. Includes the prefix itself when it is a
+	 *         key.
+	 */
+	public SortedSet<String> getKeys(String prefix) {
+		SortedSet<String> result;
+
+		if (prefix == null || prefix.isEmpty()) {
+			result = this.keys;
+		} else {
+			result = this.keys.subSet(prefix, prefix + Character.MAX_VALUE);
+		}
+
+		return Collections.unmodifiableSortedSet(result);
+	}
+}
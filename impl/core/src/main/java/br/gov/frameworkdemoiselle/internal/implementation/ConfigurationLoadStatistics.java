@@ -0,0 +1,135 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Figures collected by {@link ConfigurationLoader} while loading a configuration class once.
+ * 
+ * @author SERPRO
+ */
+public class ConfigurationLoadStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String type;
+
+	private final long parseNanos;
+
+	private final long extractionNanos;
+
+	private final long validationNanos;
+
+	private final int resolvedKeys;
+
+	private final int defaultedKeys;
+
+	private final Map<String, String> extractors;
+
+	public ConfigurationLoadStatistics(String type, long parseNanos, long extractionNanos, long validationNanos,
+			int resolvedKeys, int defaultedKeys, Map<String, String> extractors) {
+		this.type = type;
+		this.parseNanos = parseNanos;
+		this.extractionNanos = extractionNanos;
+		this.validationNanos = validationNanos;
+		this.resolvedKeys = resolvedKeys;
+		this.defaultedKeys = defaultedKeys;
+		this.extractors = Collections.unmodifiableMap(new LinkedHashMap<String, String>(extractors));
+	}
+
+	/**
+	 * @return the name of the configuration class.
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return time spent obtaining the parsed resource, in nanoseconds.
+	 */
+	public long getParseNanos() {
+		return parseNanos;
+	}
+
+	/**
+	 * @return time spent extracting the values of the fields, in nanoseconds.
+	 */
+	public long getExtractionNanos() {
+		return extractionNanos;
+	}
+
+	/**
+	 * @return time spent validating the loaded values, in nanoseconds.
+	 */
+	public long getValidationNanos() {
+		return validationNanos;
+	}
+
+	/**
+	 * @return how many keys were found in the resource.
+	 */
+	public int getResolvedKeys() {
+		return resolvedKeys;
+	}
+
+	/**
+	 * @return how many keys were not found in the resource and kept the default value of the field.
+	 */
+	public int getDefaultedKeys() {
+		return defaultedKeys;
+	}
+
+	/**
+	 * @return the name of the extractor class used for each key.
+	 */
+	public Map<String, String> getExtractors() {
+		return extractors;
+	}
+
+	@Override
+	public String toString() {
+		return type + ": parse=" + TimeUnit.NANOSECONDS.toMicros(parseNanos) + "us, extraction="
+				+ TimeUnit.NANOSECONDS.toMicros(extractionNanos) + "us, validation="
+				+ TimeUnit.NANOSECONDS.toMicros(validationNanos) + "us, resolved=" + resolvedKeys + ", defaulted="
+				+ defaultedKeys + ", extractors=" + extractors;
+	}
+}
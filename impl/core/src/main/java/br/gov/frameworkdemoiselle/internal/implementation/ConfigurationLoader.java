@@ -41,23 +41,24 @@ import static br.gov.frameworkdemoiselle.configuration.ConfigType.SYSTEM;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
-import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 
-import org.apache.commons.configuration.AbstractConfiguration;
 import org.apache.commons.configuration.ConversionException;
-import org.apache.commons.configuration.FileConfiguration;
-import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.configuration.SystemConfiguration;
-import org.apache.commons.configuration.XMLConfiguration;
 import org.slf4j.Logger;
 
 import br.gov.frameworkdemoiselle.annotation.Ignore;
@@ -99,6 +100,16 @@ public class ConfigurationLoader implements Serializable {
 
 	private Collection<Field> fields;
 
+	private transient ConfigurationBootstrap bootstrap;
+
+	private transient ConfigurationMetadata metadata;
+
+	private Map<String, Object> values;
+
+	private Map<String, String> extractors;
+
+	private int resolvedKeys;
+
 	public void load(Object object) throws ConfigurationException {
 		load(object,true);
 	}
@@ -109,28 +120,158 @@ public class ConfigurationLoader implements Serializable {
 		}
 
 		this.object = object;
+		this.values = new LinkedHashMap<String, Object>();
+		this.extractors = new LinkedHashMap<String, String>();
+		this.resolvedKeys = 0;
 
-		loadFields();
-		validateFields();
-
-		loadType();
-		loadResource();
+		long start = System.nanoTime();
+		loadMetadata();
 		loadConfiguration();
 
+		long parsed = System.nanoTime();
 		if (this.configuration != null) {
-			loadPrefix();
 			loadValues();
 		}
 
+		long extracted = System.nanoTime();
 		validateValues();
+
+		long validated = System.nanoTime();
+		recordStatistics(parsed - start, extracted - parsed, validated - extracted);
 	}
 
-	private void loadFields() {
-		this.fields = Reflections.getNonStaticFields(this.object.getClass());
+	private void recordStatistics(long parseNanos, long extractionNanos, long validationNanos) {
+		Class<?> type = this.object.getClass();
+		if (this.object instanceof LoadableConfiguration) {
+			type = type.getSuperclass();
+		}
+
+		int defaultedKeys = this.metadata.getKeys().size() - this.resolvedKeys;
+
+		Beans.getReference(ConfigurationStatistics.class).record(
+				new ConfigurationLoadStatistics(type.getName(), parseNanos, extractionNanos, validationNanos,
+						this.resolvedKeys, defaultedKeys, this.extractors));
 	}
 
-	private void validateFields() {
-		for (Field field : this.fields) {
+	private void loadMetadata() {
+		ConcurrentMap<Class<?>, ConfigurationMetadata> cache = getBootstrap().getMetadataCache();
+		Class<?> clazz = this.object.getClass();
+
+		this.metadata = cache.get(clazz);
+
+		if (this.metadata == null) {
+			ConfigurationMetadata created = createMetadata(clazz);
+			this.metadata = cache.putIfAbsent(clazz, created);
+
+			if (this.metadata == null) {
+				this.metadata = created;
+			}
+		}
+
+		this.type = this.metadata.getType();
+		this.resource = this.metadata.getResource();
+		this.prefix = this.metadata.getPrefix();
+		this.fields = this.metadata.getFields();
+	}
+
+	private ConfigurationMetadata createMetadata(Class<?> clazz) {
+		ConfigurationIndex index = getIndex(clazz);
+		if (index != null) {
+			return createMetadata(clazz, index);
+		}
+
+		List<Field> fields = Reflections.getNonStaticFields(clazz);
+		validateFields(fields);
+
+		Configuration annotation = clazz.getAnnotation(Configuration.class);
+		ConfigType type = annotation.type();
+
+		Map<Field, String> keys = new LinkedHashMap<Field, String>();
+		for (Field field : fields) {
+			if (!hasIgnore(field)) {
+				keys.put(field, getKey(field));
+			}
+		}
+
+		String resource = getResource(annotation.resource(), type);
+		return new ConfigurationMetadata(type, resource, getPrefix(annotation.prefix(), resource), fields, keys);
+	}
+
+	/*
+	 * Metadados a partir do índice gerado pelo processador de anotações: as chaves e o nome dos campos já vêm
+	 * prontos e o @Name vazio já foi rejeitado na compilação. Os objetos Field ainda são obtidos, uma única vez, porque
+	 * fazem parte do contrato de ConfigurationValueExtractor.
+	 */
+	private ConfigurationMetadata createMetadata(Class<?> clazz, ConfigurationIndex index) {
+		String[] names = index.getFieldNames();
+		String[] declaringClasses = index.getDeclaringClassNames();
+		String[] indexKeys = index.getKeys();
+
+		List<Field> fields = new ArrayList<Field>();
+		Map<Field, String> keys = new LinkedHashMap<Field, String>();
+		Map<Field, Integer> positions = new HashMap<Field, Integer>();
+
+		for (int i = 0; i < names.length; i++) {
+			Field field = getDeclaredField(clazz, declaringClasses[i], names[i]);
+			fields.add(field);
+
+			if (indexKeys[i] != null) {
+				keys.put(field, indexKeys[i]);
+
+				if (index.isAccessible(i)) {
+					positions.put(field, i);
+				}
+			}
+		}
+
+		ConfigType type = index.getType();
+		String resource = getResource(index.getResource(), type);
+		return new ConfigurationMetadata(type, resource, getPrefix(index.getPrefix(), resource), fields, keys, index,
+				positions);
+	}
+
+	/*
+	 * O índice é gerado para a classe de configuração e não para o proxy, que é uma subclasse dela.
+	 */
+	private ConfigurationIndex getIndex(Class<?> clazz) {
+		Class<?> type = LoadableConfiguration.class.isAssignableFrom(clazz) ? clazz.getSuperclass() : clazz;
+		ConfigurationIndex index = null;
+
+		try {
+			Class<?> indexClass = Class.forName(type.getName() + ConfigurationIndex.INDEX_SUFFIX, true,
+					type.getClassLoader());
+			index = (ConfigurationIndex) indexClass.newInstance();
+
+		} catch (ClassNotFoundException cause) {
+			index = null;
+
+		} catch (Exception cause) {
+			throw new ConfigurationException(getBundle().getString("configuration-index-invalid", type.getName()),
+					cause);
+		}
+
+		return index;
+	}
+
+	private Field getDeclaredField(Class<?> clazz, String declaringClass, String name) {
+		for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+			if (current.getName().equals(declaringClass)) {
+				try {
+					return current.getDeclaredField(name);
+
+				} catch (NoSuchFieldException cause) {
+					throw new ConfigurationException(getBundle().getString("configuration-index-invalid",
+							clazz.getName()), cause);
+				}
+			}
+		}
+
+		throw new ConfigurationException(getBundle().getString("configuration-index-invalid", clazz.getName()),
+				new NoSuchFieldException(declaringClass + "." + name));
+	}
+
+	private void validateFields(Collection<Field> fields) {
+		for (Field field : fields) {
 			validateField(field);
 		}
 	}
@@ -144,99 +285,82 @@ public class ConfigurationLoader implements Serializable {
 		}
 	}
 
-	private void loadType() {
-		this.type = object.getClass().getAnnotation(Configuration.class).type();
-	}
-
-	private void loadResource() {
-		if (this.type != SYSTEM) {
-			String name = this.object.getClass().getAnnotation(Configuration.class).resource();
-			String extension = this.type.toString().toLowerCase();
+	private String getResource(String name, ConfigType type) {
+		String resource = null;
 
-			this.resource = name + "." + extension;
+		if (type != SYSTEM) {
+			resource = name + "." + type.toString().toLowerCase();
 		}
+
+		return resource;
 	}
 
 	private void loadConfiguration() {
-		org.apache.commons.configuration.Configuration config = createConfiguration();
+		org.apache.commons.configuration.Configuration config;
 
-		if (config instanceof FileConfiguration) {
-			((FileConfiguration) config).setURL(Reflections.getResourceAsURL(this.resource));
+		if (this.type == SYSTEM) {
+			SystemConfiguration systemConfig = new SystemConfiguration();
+			systemConfig.setDelimiterParsingDisabled(true);
+			config = systemConfig;
 
-			try {
-				((FileConfiguration) config).load();
+		} else {
+			config = getResourceCache().getConfiguration(this.resource, this.type);
 
-			} catch (org.apache.commons.configuration.ConfigurationException cause) {
+			if (config == null) {
 				getLogger().warn(getBundle().getString("file-not-found", this.resource));
-				config = null;
 			}
 		}
 
 		this.configuration = config;
 	}
 
-	private org.apache.commons.configuration.Configuration createConfiguration() {
-		AbstractConfiguration config;
-
-		switch (this.type) {
-			case XML:
-				config = new XMLConfiguration();
-				break;
-
-			case SYSTEM:
-				config = new SystemConfiguration();
-				break;
-
-			default:
-				config = new PropertiesConfiguration();
-		}
-
-		config.setDelimiterParsingDisabled(true);
-		return config;
+	private ConfigurationResourceCache getResourceCache() {
+		return Beans.getReference(ConfigurationResourceCache.class);
 	}
 
-	private void loadPrefix() {
-		String prefix = this.object.getClass().getAnnotation(Configuration.class).prefix();
+	private String getPrefix(String declared, String resource) {
+		String prefix = declared;
 
 		if (prefix.endsWith(".")) {
-			getLogger().warn(getBundle().getString("configuration-dot-after-prefix", this.resource));
+			getLogger().warn(getBundle().getString("configuration-dot-after-prefix", resource));
 		} else if (!prefix.isEmpty()) {
 			prefix += ".";
 		}
 
-		this.prefix = prefix;
+		return prefix;
 	}
 
 	private void loadValues() {
-		for (Field field : this.fields) {
-			loadValue(field);
+		for (Map.Entry<Field, String> entry : this.metadata.getKeys().entrySet()) {
+			loadValue(entry.getKey(), entry.getValue());
 		}
 	}
 
-	private void loadValue(Field field) {
-		if (hasIgnore(field)) {
-			return;
-		}
+	private void loadValue(Field field, String key) {
+		ConfigurationValueExtractor extractor = getValueExtractor(field);
+		this.extractors.put(this.prefix + key, extractor.getClass().getName());
 
-		Object defaultValue = Reflections.getFieldValue(field, this.object);
-		Object loadedValue = getValue(field, field.getType(), getKey(field), defaultValue);
+		Object defaultValue = this.metadata.getValue(field, this.object);
+		Object loadedValue = getValue(field, extractor, key);
 		Object finalValue = (loadedValue == null ? defaultValue : loadedValue);
 
 		if (loadedValue == null) {
-			getLogger().debug(getBundle().getString("configuration-key-not-found", this.prefix + getKey(field)));
+			getLogger().debug(getBundle().getString("configuration-key-not-found", this.prefix + key));
+		} else {
+			this.resolvedKeys++;
 		}
 
-		Reflections.setFieldValue(field, this.object, finalValue);
+		this.metadata.setValue(field, this.object, finalValue);
+		this.values.put(this.prefix + key, finalValue);
 		getLogger().debug(
-				getBundle().getString("configuration-field-loaded", this.prefix + getKey(field), field.getName(),
+				getBundle().getString("configuration-field-loaded", this.prefix + key, field.getName(),
 						finalValue == null ? "null" : finalValue));
 	}
 
-	private Object getValue(Field field, Class<?> type, String key, Object defaultValue) {
+	private Object getValue(Field field, ConfigurationValueExtractor extractor, String key) {
 		Object value = null;
 
 		try {
-			ConfigurationValueExtractor extractor = getValueExtractor(field);
 			value = extractor.getValue(this.prefix, key, field, this.configuration);
 
 		} catch (ConfigurationException cause) {
@@ -244,19 +368,31 @@ public class ConfigurationLoader implements Serializable {
 
 		} catch (ConversionException cause) {
 			throw new ConfigurationException(getBundle().getString("configuration-not-conversion",
-					this.prefix + getKey(field), field.getType().toString()), cause);
+					this.prefix + key, field.getType().toString()), cause);
 		}
 
 		catch (Exception cause) {
-			throw new ConfigurationException(getBundle().getString("configuration-generic-extraction-error", field.getType().toString(), getValueExtractor(field).getClass().getCanonicalName()), cause);
+			throw new ConfigurationException(getBundle().getString("configuration-generic-extraction-error", field.getType().toString(), extractor.getClass().getCanonicalName()), cause);
 		}
 
 		return value;
 	}
 
 	private ConfigurationValueExtractor getValueExtractor(Field field) {
+		ConfigurationBootstrap bootstrap = getBootstrap();
+		Type fieldType = field.getGenericType();
+		ConfigurationValueExtractor elected = bootstrap.getExtractorCache().get(fieldType);
+
+		if (elected == null) {
+			elected = selectValueExtractor(field, bootstrap);
+			bootstrap.getExtractorCache().putIfAbsent(fieldType, elected);
+		}
+
+		return elected;
+	}
+
+	private ConfigurationValueExtractor selectValueExtractor(Field field, ConfigurationBootstrap bootstrap) {
 		Collection<ConfigurationValueExtractor> candidates = new HashSet<ConfigurationValueExtractor>();
-		ConfigurationBootstrap bootstrap = Beans.getReference(ConfigurationBootstrap.class);
 
 		for (Class<? extends ConfigurationValueExtractor> extractorClass : bootstrap.getCache()) {
 			ConfigurationValueExtractor extractor = Beans.getReference(extractorClass);
@@ -277,6 +413,14 @@ public class ConfigurationLoader implements Serializable {
 		return elected;
 	}
 
+	private ConfigurationBootstrap getBootstrap() {
+		if (bootstrap == null) {
+			bootstrap = Beans.getReference(ConfigurationBootstrap.class);
+		}
+
+		return bootstrap;
+	}
+
 	private String getKey(Field field) {
 		String key;
 
@@ -293,31 +437,57 @@ public class ConfigurationLoader implements Serializable {
 		return field.isAnnotationPresent(Ignore.class);
 	}
 
-	private void validateValues() {
-		for (Field field : this.fields) {
-			validateValue(field, Reflections.getFieldValue(field, this.object));
-		}
-	}
-
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void validateValue(Field field, Object value) {
-		ValidatorFactory dfv = Validation.buildDefaultValidatorFactory();
-		Validator validator = dfv.getValidator();
-
-		Set violations = validator.validateProperty(this.object, field.getName());
-
-		StringBuffer message = new StringBuffer();
+	private void validateValues() {
+		Validator validator = Beans.getReference(ValidatorFactoryProvider.class).getValidator();
+		Set violations = validator.validate(this.object);
 
 		if (!violations.isEmpty()) {
+			StringBuffer message = new StringBuffer();
+
 			for (Iterator iter = violations.iterator(); iter.hasNext();) {
 				ConstraintViolation violation = (ConstraintViolation) iter.next();
-				message.append(field.toGenericString() + " " + violation.getMessage() + "\n");
+				message.append(getViolationSource(violation) + " " + violation.getMessage() + "\n");
 			}
 
 			throw new ConfigurationException(message.toString(), new ConstraintViolationException(violations));
 		}
 	}
 
+	private String getViolationSource(ConstraintViolation<?> violation) {
+		String property = violation.getPropertyPath().toString();
+
+		for (Field field : this.fields) {
+			if (field.getName().equals(property)) {
+				return field.toGenericString();
+			}
+		}
+
+		return Strings.isEmpty(property) ? this.object.getClass().getName() : this.object.getClass().getName() + "."
+				+ property;
+	}
+
+	/**
+	 * @return the resource file read by the last {@link #load(Object)} call, or <code>null</code> for system variables.
+	 */
+	public String getResource() {
+		return this.resource;
+	}
+
+	/**
+	 * @return the {@link ConfigType} of the class loaded by the last {@link #load(Object)} call.
+	 */
+	public ConfigType getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return the values assigned by the last {@link #load(Object)} call, keyed by their full configuration key.
+	 */
+	public Map<String, Object> getLoadedValues() {
+		return this.values;
+	}
+
 	private ResourceBundle getBundle() {
 		if (bundle == null) {
 			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
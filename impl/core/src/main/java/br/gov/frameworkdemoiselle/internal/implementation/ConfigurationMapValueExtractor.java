@@ -40,9 +40,7 @@ import static br.gov.frameworkdemoiselle.annotation.Priority.L2_PRIORITY;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.configuration.Configuration;
@@ -53,35 +51,49 @@ import br.gov.frameworkdemoiselle.configuration.ConfigurationValueExtractor;
 @Priority(L2_PRIORITY)
 public class ConfigurationMapValueExtractor implements ConfigurationValueExtractor {
 
+	private static final Pattern MAP_KEY = Pattern.compile("\\w+");
+
 	@Override
 	public Object getValue(String prefix, String key, Field field, Configuration configuration) throws Exception {
 		Map<String, Object> value = null;
 
-		String regexp = "^(" + prefix + ")(" + key + ")(\\.(\\w+))?$";
-		Pattern pattern = Pattern.compile(regexp);
-
-		for (Iterator<String> iter = configuration.getKeys(); iter.hasNext();) {
-			String iterKey = iter.next();
-			Matcher matcher = pattern.matcher(iterKey);
+		String fullKey = prefix + key;
 
-			if (matcher.matches()) {
-				String confKey = matcher.group(1) + matcher.group(2) + ( matcher.group(3)!=null ? matcher.group(3) : "" );
-						
-						/*matcher.group(1) + (matcher.group(2) == null ? "" : matcher.group(2))
-						+ matcher.group(4);*/
+		for (String iterKey : ConfigurationKeyIndex.getIndex(configuration).getKeys(fullKey)) {
+			String mapKey = getMapKey(fullKey, iterKey);
 
+			if (mapKey != null) {
 				if (value == null) {
 					value = new HashMap<String, Object>();
 				}
 
-				String mapKey = matcher.group(4) == null ? "default" : matcher.group(4);
-				value.put(mapKey, configuration.getString(confKey));
+				value.put(mapKey, configuration.getString(iterKey));
 			}
 		}
 
 		return value;
 	}
 
+	/*
+	 * A chave "prefixo.campo" corresponde à entrada "default" do mapa e "prefixo.campo.nome" à entrada "nome".
+	 */
+	private static String getMapKey(String fullKey, String iterKey) {
+		String mapKey = null;
+
+		if (iterKey.length() == fullKey.length()) {
+			mapKey = "default";
+
+		} else if (iterKey.charAt(fullKey.length()) == '.') {
+			String name = iterKey.substring(fullKey.length() + 1);
+
+			if (MAP_KEY.matcher(name).matches()) {
+				mapKey = name;
+			}
+		}
+
+		return mapKey;
+	}
+
 	@Override
 	public boolean isSupported(Field field) {
 		return field.getType() == Map.class;
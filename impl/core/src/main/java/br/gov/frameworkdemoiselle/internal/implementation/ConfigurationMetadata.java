@@ -0,0 +1,173 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.gov.frameworkdemoiselle.configuration.ConfigType;
+import br.gov.frameworkdemoiselle.configuration.Configuration;
+import br.gov.frameworkdemoiselle.util.Exceptions;
+
+/**
+ * What {@link ConfigurationLoader} needs to know about a configuration class: its resource, its prefix and the key of
+ * each field to be loaded. Built once per class, so loading the class again (another instance, a reload or the
+ * warm-up) does not repeat the annotation lookups and the field scanning. The fields are made accessible once, when
+ * the metadata is built.
+ * <p>
+ * When the metadata comes from a {@link ConfigurationIndex} generated at compile time, the fields the index can reach
+ * are read and written through it, and only the remaining ones are made accessible.
+ * 
+ * @author SERPRO
+ */
+public final class ConfigurationMetadata {
+
+	private final ConfigType type;
+
+	private final String resource;
+
+	private final String prefix;
+
+	private final List<Field> fields;
+
+	private final Map<Field, String> keys;
+
+	private final ConfigurationIndex index;
+
+	private final Map<Field, Integer> positions;
+
+	/**
+	 * @param type
+	 *            the resource type, as defined by {@link Configuration#type()}.
+	 * @param resource
+	 *            the resource file name, or <code>null</code> for system variables.
+	 * @param prefix
+	 *            the prefix prepended to every key, already ending with a dot when not empty.
+	 * @param fields
+	 *            all the non static fields of the class.
+	 * @param keys
+	 *            the key of each field to be loaded, in declaration order.
+	 */
+	public ConfigurationMetadata(ConfigType type, String resource, String prefix, List<Field> fields,
+			Map<Field, String> keys) {
+		this(type, resource, prefix, fields, keys, null, Collections.<Field, Integer> emptyMap());
+	}
+
+	/**
+	 * @param index
+	 *            the index generated for the class.
+	 * @param positions
+	 *            the position in the index of each field listed in <code>keys</code> that the index can read and
+	 *            write.
+	 * @see #ConfigurationMetadata(ConfigType, String, String, List, Map)
+	 */
+	public ConfigurationMetadata(ConfigType type, String resource, String prefix, List<Field> fields,
+			Map<Field, String> keys, ConfigurationIndex index, Map<Field, Integer> positions) {
+		this.type = type;
+		this.resource = resource;
+		this.prefix = prefix;
+		this.fields = Collections.unmodifiableList(fields);
+		this.keys = Collections.unmodifiableMap(new LinkedHashMap<Field, String>(keys));
+		this.index = index;
+		this.positions = new HashMap<Field, Integer>(positions);
+
+		for (Field field : this.keys.keySet()) {
+			if (!this.positions.containsKey(field)) {
+				field.setAccessible(true);
+			}
+		}
+	}
+
+	public ConfigType getType() {
+		return type;
+	}
+
+	public String getResource() {
+		return resource;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public List<Field> getFields() {
+		return fields;
+	}
+
+	public Map<Field, String> getKeys() {
+		return keys;
+	}
+
+	/**
+	 * Reads a field listed in {@link #getKeys()}, through the index when it can reach the field.
+	 */
+	public Object getValue(Field field, Object object) {
+		Object result = null;
+		Integer position = positions.get(field);
+
+		try {
+			result = position == null ? field.get(object) : index.getValue(object, position);
+
+		} catch (Exception cause) {
+			Exceptions.handleToRuntimeException(cause);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Writes a field listed in {@link #getKeys()}, through the index when it can reach the field.
+	 */
+	public void setValue(Field field, Object object, Object value) {
+		Integer position = positions.get(field);
+
+		try {
+			if (position == null) {
+				field.set(object, value);
+			} else {
+				index.setValue(object, position, value);
+			}
+
+		} catch (Exception cause) {
+			Exceptions.handleToRuntimeException(cause);
+		}
+	}
+}
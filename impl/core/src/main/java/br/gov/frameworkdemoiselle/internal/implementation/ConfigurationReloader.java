@@ -0,0 +1,330 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import static br.gov.frameworkdemoiselle.configuration.ConfigType.SYSTEM;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+
+import br.gov.frameworkdemoiselle.configuration.ConfigType;
+import br.gov.frameworkdemoiselle.configuration.ConfigurationChangeEvent;
+import br.gov.frameworkdemoiselle.internal.configuration.ConfigurationConfig;
+import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.Reflections;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+/**
+ * Watches the resource files of the loaded configuration classes and reloads them when a file changes. Only active
+ * when the key <i>frameworkdemoiselle.configuration.reload.enabled</i> is <code>true</code>.
+ * <p>
+ * A reload fills a brand new instance of the configuration class and, only if it was loaded and validated without
+ * errors, publishes it to the proxy at once through {@link ReloadableConfiguration#setCurrentInstance(Object)}. A
+ * reader therefore sees either all old values or all new values, never a mix of them. When the reload fails the old
+ * values are kept and the failure is logged.
+ * <p>
+ * Only resources stored in the file system can be watched. Their modification time is polled in a single daemon thread.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class ConfigurationReloader implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient Logger logger;
+
+	private transient ResourceBundle bundle;
+
+	private transient ConfigurationConfig config;
+
+	private final ConcurrentMap<String, WatchedResource> resources = new ConcurrentHashMap<String, WatchedResource>();
+
+	private transient ScheduledExecutorService executor;
+
+	/**
+	 * Registers a just loaded configuration proxy to be reloaded when its resource file changes. Does nothing if the
+	 * reload is disabled, the configuration is read from system variables or its resource is not a file.
+	 * 
+	 * @param proxy
+	 *            the configuration proxy that was loaded.
+	 * @param loader
+	 *            the loader that loaded the proxy.
+	 */
+	public void register(ReloadableConfiguration proxy, ConfigurationLoader loader) {
+		ConfigType type = loader.getType();
+		String resource = loader.getResource();
+
+		if (type == SYSTEM || resource == null || !getConfig().isReloadEnabled()) {
+			return;
+		}
+
+		WatchedResource watched = resources.get(resource);
+
+		if (watched == null) {
+			File file = toFile(Reflections.getResourceAsURL(resource));
+
+			if (file == null) {
+				getLogger().debug(getBundle().getString("configuration-reload-not-watchable", resource));
+				return;
+			}
+
+			WatchedResource created = new WatchedResource(resource, type, file);
+			watched = resources.putIfAbsent(resource, created);
+
+			if (watched == null) {
+				watched = created;
+				getLogger().info(getBundle().getString("configuration-reload-watching", file.getAbsolutePath()));
+			}
+		}
+
+		watched.registrations.add(new Registration(proxy, loader.getLoadedValues()));
+		startIfNeeded();
+	}
+
+	private synchronized void startIfNeeded() {
+		if (executor == null) {
+			long interval = Math.max(1, getConfig().getReloadInterval());
+
+			executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "demoiselle-configuration-reloader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+			final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+			executor.scheduleWithFixedDelay(new Runnable() {
+
+				@Override
+				public void run() {
+					Thread current = Thread.currentThread();
+					ClassLoader previous = current.getContextClassLoader();
+					current.setContextClassLoader(classLoader);
+
+					try {
+						checkResources();
+
+					} finally {
+						current.setContextClassLoader(previous);
+					}
+				}
+			}, interval, interval, TimeUnit.SECONDS);
+		}
+	}
+
+	private void checkResources() {
+		for (WatchedResource watched : resources.values()) {
+			long lastModified = watched.file.lastModified();
+
+			if (lastModified != watched.lastModified) {
+				watched.lastModified = lastModified;
+				reload(watched);
+			}
+		}
+	}
+
+	private void reload(WatchedResource watched) {
+		Beans.getReference(ConfigurationResourceCache.class).invalidate(watched.resource, watched.type);
+
+		for (Registration registration : watched.registrations) {
+			ReloadableConfiguration proxy = registration.getProxy();
+
+			//Proxies que já foram descartados não precisam mais ser recarregados.
+			if (proxy == null) {
+				watched.registrations.remove(registration);
+				continue;
+			}
+
+			Class<?> type = registration.type;
+
+			try {
+				Object instance = Reflections.instantiate(type);
+				ConfigurationLoader loader = Beans.getReference(ConfigurationLoader.class);
+				loader.load(instance, false);
+
+				Map<String, Object> values = loader.getLoadedValues();
+				Set<String> changedKeys = getChangedKeys(registration.values, values);
+
+				if (!changedKeys.isEmpty()) {
+					proxy.setCurrentInstance(instance);
+					registration.values = values;
+
+					getLogger().info(getBundle().getString("configuration-reloaded", type.getName(), changedKeys));
+					Beans.getBeanManager().fireEvent(new ConfigurationChangeEvent(type, changedKeys));
+				}
+
+			} catch (Exception cause) {
+				getLogger().error(getBundle().getString("configuration-reload-failed", type.getName()), cause);
+			}
+		}
+	}
+
+	private static Set<String> getChangedKeys(Map<String, Object> oldValues, Map<String, Object> newValues) {
+		Set<String> keys = new LinkedHashSet<String>(oldValues.keySet());
+		keys.addAll(newValues.keySet());
+
+		Set<String> changed = new LinkedHashSet<String>();
+		for (String key : keys) {
+			if (!Arrays.deepEquals(new Object[] { oldValues.get(key) }, new Object[] { newValues.get(key) })) {
+				changed.add(key);
+			}
+		}
+
+		return changed;
+	}
+
+	private static File toFile(URL url) {
+		File file = null;
+
+		if (url != null && "file".equals(url.getProtocol())) {
+			try {
+				file = new File(url.toURI());
+
+			} catch (URISyntaxException cause) {
+				file = new File(url.getPath());
+			}
+		}
+
+		return file;
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+
+		resources.clear();
+	}
+
+	private ConfigurationConfig getConfig() {
+		if (config == null) {
+			config = Beans.getReference(ConfigurationConfig.class);
+		}
+
+		return config;
+	}
+
+	private Logger getLogger() {
+		if (logger == null) {
+			logger = LoggerProducer.create(ConfigurationReloader.class);
+		}
+
+		return logger;
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
+		}
+
+		return bundle;
+	}
+
+	private static class WatchedResource implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String resource;
+
+		private final ConfigType type;
+
+		private final File file;
+
+		private volatile long lastModified;
+
+		private final List<Registration> registrations = new CopyOnWriteArrayList<Registration>();
+
+		public WatchedResource(String resource, ConfigType type, File file) {
+			this.resource = resource;
+			this.type = type;
+			this.file = file;
+			this.lastModified = file.lastModified();
+		}
+	}
+
+	private static class Registration implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		//Proxies de escopo dependente são descartados com o bean que os recebeu, por isso não são retidos aqui.
+		private final transient WeakReference<ReloadableConfiguration> proxy;
+
+		private final Class<?> type;
+
+		private volatile Map<String, Object> values;
+
+		public Registration(ReloadableConfiguration proxy, Map<String, Object> values) {
+			this.proxy = new WeakReference<ReloadableConfiguration>(proxy);
+			this.type = proxy.getClass().getSuperclass();
+			this.values = new LinkedHashMap<String, Object>(values);
+		}
+
+		public ReloadableConfiguration getProxy() {
+			return proxy != null ? proxy.get() : null;
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.FileConfiguration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.configuration.XMLConfiguration;
+
+import br.gov.frameworkdemoiselle.configuration.ConfigType;
+import br.gov.frameworkdemoiselle.configuration.ConfigurationException;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.Reflections;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+/**
+ * Keeps the parsed configuration resources (properties and XML files) shared by all {@link ConfigurationLoader}
+ * instances, so each resource is parsed only once no matter how many configuration classes read from it. Entries are
+ * keyed by resource name, {@link ConfigType} and the class loader that provides the resource.
+ * <p>
+ * The cached {@link Configuration} objects are shared between loaders and threads, so they are read-only views of the
+ * parsed resources: changing them throws {@link UnsupportedOperationException}.
+ * A resource that fails to parse is not cached, so the next request parses it again. System variables
+ * ({@link ConfigType#SYSTEM}) are never cached.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class ConfigurationResourceCache implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient ConcurrentMap<Key, FutureTask<Configuration>> cache = new ConcurrentHashMap<Key, FutureTask<Configuration>>();
+
+	private transient ResourceBundle bundle;
+
+	/**
+	 * Returns the parsed configuration for the given resource, parsing it if this is the first request for it.
+	 * 
+	 * @param resource
+	 *            name of the resource file, including its extension.
+	 * @param type
+	 *            type of the resource, must be {@link ConfigType#PROPERTIES} or {@link ConfigType#XML}.
+	 * @return the parsed configuration or <code>null</code> if the resource could not be found.
+	 * @throws ConfigurationException
+	 *             if the resource could not be parsed.
+	 */
+	public Configuration getConfiguration(final String resource, final ConfigType type) {
+		Key key = new Key(resource, type, Reflections.getClassLoaderForResource(resource));
+		FutureTask<Configuration> task = cache.get(key);
+
+		if (task == null) {
+			FutureTask<Configuration> newTask = new FutureTask<Configuration>(new Callable<Configuration>() {
+
+				@Override
+				public Configuration call() throws Exception {
+					return parse(resource, type);
+				}
+			});
+
+			task = cache.putIfAbsent(key, newTask);
+
+			if (task == null) {
+				task = newTask;
+				task.run();
+			}
+		}
+
+		try {
+			return task.get();
+
+		} catch (InterruptedException cause) {
+			Thread.currentThread().interrupt();
+			throw new ConfigurationException(resource, cause);
+
+		} catch (ExecutionException cause) {
+			// A falha não fica em cache, para que o próximo pedido leia o recurso de novo.
+			cache.remove(key, task);
+
+			if (cause.getCause() instanceof ConfigurationException) {
+				throw (ConfigurationException) cause.getCause();
+			}
+
+			throw new ConfigurationException(resource, cause.getCause());
+		}
+	}
+
+	/**
+	 * Discards the parsed resource, forcing it to be parsed again on the next request.
+	 */
+	public void invalidate(String resource, ConfigType type) {
+		cache.remove(new Key(resource, type, Reflections.getClassLoaderForResource(resource)));
+	}
+
+	/**
+	 * Discards every parsed resource, forcing them to be parsed again on the next request.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	private Configuration parse(String resource, ConfigType type) {
+		AbstractConfiguration config;
+
+		switch (type) {
+			case XML:
+				config = new XMLConfiguration();
+				break;
+
+			default:
+				config = new PropertiesConfiguration();
+		}
+
+		URL url = Reflections.getResourceAsURL(resource);
+		if (url == null) {
+			return null;
+		}
+
+		config.setDelimiterParsingDisabled(true);
+		((FileConfiguration) config).setURL(url);
+
+		try {
+			((FileConfiguration) config).load();
+
+		} catch (org.apache.commons.configuration.ConfigurationException cause) {
+			throw new ConfigurationException(getBundle().getString("configuration-resource-parse-failed", resource),
+					cause);
+		}
+
+		return new UnmodifiableConfiguration(config);
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
+		}
+
+		return bundle;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+
+		// Os recursos lidos não são serializados, e são lidos de novo no primeiro pedido após a restauração.
+		cache = new ConcurrentHashMap<Key, FutureTask<Configuration>>();
+	}
+
+	/*
+	 * Visão somente leitura de um recurso lido. As alterações feitas pelo AbstractConfiguration passam todas por
+	 * addPropertyDirect ou clearPropertyDirect, por isso basta recusá-las ali.
+	 */
+	private static final class UnmodifiableConfiguration extends AbstractConfiguration {
+
+		private final AbstractConfiguration delegate;
+
+		UnmodifiableConfiguration(AbstractConfiguration delegate) {
+			this.delegate = delegate;
+			setDelimiterParsingDisabled(delegate.isDelimiterParsingDisabled());
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return delegate.isEmpty();
+		}
+
+		@Override
+		public boolean containsKey(String key) {
+			return delegate.containsKey(key);
+		}
+
+		@Override
+		public Object getProperty(String key) {
+			return delegate.getProperty(key);
+		}
+
+		@Override
+		public Iterator<String> getKeys() {
+			return unmodifiable(delegate.getKeys());
+		}
+
+		@Override
+		public Iterator<String> getKeys(String prefix) {
+			return unmodifiable(delegate.getKeys(prefix));
+		}
+
+		@Override
+		protected void addPropertyDirect(String key, Object value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected void clearPropertyDirect(String key) {
+			throw new UnsupportedOperationException();
+		}
+
+		private static Iterator<String> unmodifiable(final Iterator<String> iterator) {
+			return new Iterator<String>() {
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public String next() {
+					return iterator.next();
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+
+	private static final class Key {
+
+		private final String resource;
+
+		private final ConfigType type;
+
+		private final ClassLoader classLoader;
+
+		Key(String resource, ConfigType type, ClassLoader classLoader) {
+			this.resource = resource;
+			this.type = type;
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = resource.hashCode();
+			result = 31 * result + type.hashCode();
+			result = 31 * result + (classLoader == null ? 0 : classLoader.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+			return resource.equals(other.resource) && type == other.type && classLoader == other.classLoader;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Accumulates the {@link ConfigurationLoadStatistics} of every configuration class loaded by the application. Keeps
+ * the totals of all loads and the figures of the last load of each class.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class ConfigurationStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ConcurrentMap<String, ConfigurationLoadStatistics> lastLoads = new ConcurrentHashMap<String, ConfigurationLoadStatistics>();
+
+	private final AtomicLong loads = new AtomicLong();
+
+	private final AtomicLong parseNanos = new AtomicLong();
+
+	private final AtomicLong extractionNanos = new AtomicLong();
+
+	private final AtomicLong validationNanos = new AtomicLong();
+
+	private final AtomicLong resolvedKeys = new AtomicLong();
+
+	private final AtomicLong defaultedKeys = new AtomicLong();
+
+	public void record(ConfigurationLoadStatistics statistics) {
+		lastLoads.put(statistics.getType(), statistics);
+
+		loads.incrementAndGet();
+		parseNanos.addAndGet(statistics.getParseNanos());
+		extractionNanos.addAndGet(statistics.getExtractionNanos());
+		validationNanos.addAndGet(statistics.getValidationNanos());
+		resolvedKeys.addAndGet(statistics.getResolvedKeys());
+		defaultedKeys.addAndGet(statistics.getDefaultedKeys());
+	}
+
+	/**
+	 * @return the figures of the last load of the given configuration class, or <code>null</code> if it was not loaded
+	 *         yet.
+	 */
+	public ConfigurationLoadStatistics getLastLoad(String type) {
+		return lastLoads.get(type);
+	}
+
+	/**
+	 * @return the names of the loaded configuration classes, in alphabetical order.
+	 */
+	public List<String> getLoadedTypes() {
+		List<String> result = new ArrayList<String>(lastLoads.keySet());
+		Collections.sort(result);
+		return result;
+	}
+
+	public long getLoads() {
+		return loads.get();
+	}
+
+	public long getParseNanos() {
+		return parseNanos.get();
+	}
+
+	public long getExtractionNanos() {
+		return extractionNanos.get();
+	}
+
+	public long getValidationNanos() {
+		return validationNanos.get();
+	}
+
+	public long getResolvedKeys() {
+		return resolvedKeys.get();
+	}
+
+	public long getDefaultedKeys() {
+		return defaultedKeys.get();
+	}
+}
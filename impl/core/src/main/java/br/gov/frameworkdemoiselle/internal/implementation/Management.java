@@ -47,7 +47,6 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
-import javax.validation.Validation;
 import javax.validation.ValidationException;
 import javax.validation.Validator;
 
@@ -367,7 +366,7 @@ public class Management implements Serializable {
 	private Validator getDefaultValidator() {
 		if (validator == null) {
 			try {
-				this.validator = Validation.buildDefaultValidatorFactory().getValidator();
+				this.validator = Beans.getReference(ValidatorFactoryProvider.class).getValidator();
 			} catch (ValidationException e) {
 				this.validator = null;
 			}
@@ -0,0 +1,143 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+
+import br.gov.frameworkdemoiselle.internal.configuration.TransactionConfig;
+import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
+import br.gov.frameworkdemoiselle.transaction.TransactionSynchronization;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+/**
+ * Calls the {@link TransactionSynchronization} bound to a transaction when it completes. After a commit the calls run
+ * in the {@link AsynchronousExecutor} when the key <i>frameworkdemoiselle.transaction.synchronization.async</i> is
+ * <code>true</code>.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class SynchronizationDispatcher implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient Logger logger;
+
+	private transient ResourceBundle bundle;
+
+	private transient TransactionConfig config;
+
+	/**
+	 * Calls {@link TransactionSynchronization#beforeCompletion()} on each synchronization, in the order they were
+	 * registered. The first exception stops the calls and is thrown to the caller, which must roll the transaction
+	 * back.
+	 */
+	public void beforeCompletion(List<TransactionSynchronization> synchronizations) {
+		for (TransactionSynchronization synchronization : synchronizations) {
+			synchronization.beforeCompletion();
+		}
+	}
+
+	/**
+	 * Calls {@link TransactionSynchronization#afterCompletion(boolean)} on each synchronization, in the order they were
+	 * registered. Exceptions are logged and don't stop the calls.
+	 */
+	public void afterCompletion(final List<TransactionSynchronization> synchronizations, final boolean committed) {
+		if (synchronizations.isEmpty()) {
+			return;
+		}
+
+		if (committed && getConfig().isSynchronizationAsync()) {
+			Beans.getReference(AsynchronousExecutor.class).submit(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					callAfterCompletion(synchronizations, committed);
+					return null;
+				}
+			});
+
+		} else {
+			callAfterCompletion(synchronizations, committed);
+		}
+	}
+
+	private void callAfterCompletion(List<TransactionSynchronization> synchronizations, boolean committed) {
+		for (TransactionSynchronization synchronization : synchronizations) {
+			try {
+				synchronization.afterCompletion(committed);
+
+			} catch (Exception cause) {
+				getLogger().error(
+						getBundle().getString("transaction-synchronization-failed",
+								synchronization.getClass().getName()), cause);
+			}
+		}
+	}
+
+	private TransactionConfig getConfig() {
+		if (config == null) {
+			config = Beans.getReference(TransactionConfig.class);
+		}
+
+		return config;
+	}
+
+	private Logger getLogger() {
+		if (logger == null) {
+			logger = LoggerProducer.create(SynchronizationDispatcher.class);
+		}
+
+		return logger;
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
+		}
+
+		return bundle;
+	}
+}
@@ -36,12 +36,21 @@
  */
 package br.gov.frameworkdemoiselle.internal.implementation;
 
+import javax.enterprise.context.ContextNotActiveException;
 import javax.inject.Named;
 
 import br.gov.frameworkdemoiselle.internal.configuration.TransactionConfig;
+import br.gov.frameworkdemoiselle.transaction.SynchronizationCapableTransaction;
+import br.gov.frameworkdemoiselle.transaction.SynchronizingTransactionContext;
 import br.gov.frameworkdemoiselle.transaction.Transaction;
 import br.gov.frameworkdemoiselle.transaction.TransactionContext;
+import br.gov.frameworkdemoiselle.transaction.TransactionException;
+import br.gov.frameworkdemoiselle.transaction.TransactionSynchronization;
+import br.gov.frameworkdemoiselle.transaction.Transactional;
+import br.gov.frameworkdemoiselle.transaction.TransactionalInterceptor.TransactionInfo;
 import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
 
 /**
  * This is the default implementation of {@link TransactionContext} interface.
@@ -49,7 +58,7 @@ import br.gov.frameworkdemoiselle.util.Beans;
  * @author SERPRO
  */
 @Named("transactionContext")
-public class TransactionContextImpl implements TransactionContext {
+public class TransactionContextImpl implements SynchronizingTransactionContext {
 
 	private static final long serialVersionUID = 1L;
 
@@ -70,6 +79,42 @@ public class TransactionContextImpl implements TransactionContext {
 		return this.transaction;
 	}
 
+	/**
+	 * Strategies that are not a {@link SynchronizationCapableTransaction} keep the synchronizations in the state of the
+	 * transaction managed by the {@link Transactional} interceptor, which calls them when it completes the transaction.
+	 */
+	@Override
+	public void registerSynchronization(TransactionSynchronization synchronization) {
+		Transaction transaction = getCurrentTransaction();
+
+		if (transaction instanceof SynchronizationCapableTransaction) {
+			((SynchronizationCapableTransaction) transaction).registerSynchronization(synchronization);
+
+		} else {
+			TransactionInfo info;
+
+			try {
+				info = Beans.getReference(TransactionInfo.class);
+
+				if (info.getCounter() == 0 || !transaction.isActive()) {
+					info = null;
+				}
+
+			} catch (ContextNotActiveException cause) {
+				info = null;
+			}
+
+			if (info == null) {
+				ResourceBundle bundle = Beans.getReference(ResourceBundle.class, new NameQualifier(
+						"demoiselle-core-bundle"));
+				throw new TransactionException(bundle.getString("transaction-synchronization-not-active",
+						Transactional.class.getSimpleName()));
+			}
+
+			info.addSynchronization(synchronization);
+		}
+	}
+
 	private TransactionConfig getConfig() {
 		return Beans.getReference(TransactionConfig.class);
 	}
@@ -0,0 +1,234 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import br.gov.frameworkdemoiselle.transaction.TransactionalInterceptor;
+
+/**
+ * Duration and outcome of the transactions completed by the {@link TransactionalInterceptor}, grouped by the method
+ * that began each transaction. Only recorded when the key <i>frameworkdemoiselle.transaction.monitoring.enabled</i> is
+ * <code>true</code>.
+ * <p>
+ * Recording a transaction doesn't lock: durations are counted in a histogram of atomic buckets whose bounds double
+ * from one bucket to the next, so percentiles are approximated by the upper bound of their bucket.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class TransactionMetrics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ConcurrentMap<Method, MethodMetrics> methods = new ConcurrentHashMap<Method, MethodMetrics>();
+
+	/**
+	 * Records a completed transaction.
+	 * 
+	 * @param method
+	 *            the method that began the transaction.
+	 * @param nanos
+	 *            the time elapsed between the begin and the end of the transaction, in nanoseconds.
+	 * @param committed
+	 *            <code>true</code> if the transaction was committed, <code>false</code> if it was rolled back.
+	 * @param depth
+	 *            how deep the transactional methods were nested inside the transaction.
+	 */
+	public void record(Method method, long nanos, boolean committed, int depth) {
+		MethodMetrics metrics = methods.get(method);
+
+		if (metrics == null) {
+			MethodMetrics created = new MethodMetrics(method);
+			metrics = methods.putIfAbsent(method, created);
+
+			if (metrics == null) {
+				metrics = created;
+			}
+		}
+
+		metrics.record(nanos, committed, depth);
+	}
+
+	/**
+	 * @return the figures of each method that began a transaction, in no particular order.
+	 */
+	public List<MethodMetrics> getMethods() {
+		return new ArrayList<MethodMetrics>(methods.values());
+	}
+
+	public void reset() {
+		methods.clear();
+	}
+
+	/**
+	 * Figures of the transactions begun by a single method.
+	 */
+	public static class MethodMetrics implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		// Limite superior do último bucket: 2^(BUCKETS - 2) ms, pouco mais de 4 minutos.
+		private static final int BUCKETS = 20;
+
+		private final String method;
+
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+		private final AtomicLong commits = new AtomicLong();
+
+		private final AtomicLong rollbacks = new AtomicLong();
+
+		private final AtomicLong totalNanos = new AtomicLong();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private final AtomicLong maxDepth = new AtomicLong();
+
+		MethodMetrics(Method method) {
+			this.method = method.toGenericString();
+		}
+
+		void record(long nanos, boolean committed, int depth) {
+			buckets.incrementAndGet(getBucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+			totalNanos.addAndGet(nanos);
+			updateMax(maxNanos, nanos);
+			updateMax(maxDepth, depth);
+
+			if (committed) {
+				commits.incrementAndGet();
+			} else {
+				rollbacks.incrementAndGet();
+			}
+		}
+
+		private static int getBucket(long millis) {
+			// O bucket 0 conta as transações abaixo de 1 ms; o bucket i, as de 2^(i-1) até 2^i - 1 ms.
+			int bucket = 64 - Long.numberOfLeadingZeros(millis);
+			return Math.min(bucket, BUCKETS - 1);
+		}
+
+		private static void updateMax(AtomicLong max, long value) {
+			long current = max.get();
+
+			while (value > current && !max.compareAndSet(current, value)) {
+				current = max.get();
+			}
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public long getCount() {
+			return commits.get() + rollbacks.get();
+		}
+
+		public long getCommits() {
+			return commits.get();
+		}
+
+		public long getRollbacks() {
+			return rollbacks.get();
+		}
+
+		/**
+		 * @return the sum of the durations of all transactions, in milliseconds.
+		 */
+		public double getTotalDuration() {
+			return totalNanos.get() / 1000000d;
+		}
+
+		/**
+		 * @return the average duration of the transactions, in milliseconds.
+		 */
+		public double getAverageDuration() {
+			long count = getCount();
+			return count == 0 ? 0 : getTotalDuration() / count;
+		}
+
+		/**
+		 * @return the duration of the longest transaction, in milliseconds.
+		 */
+		public double getMaxDuration() {
+			return maxNanos.get() / 1000000d;
+		}
+
+		public long getMaxDepth() {
+			return maxDepth.get();
+		}
+
+		/**
+		 * @param percentile
+		 *            a value between 0 and 100.
+		 * @return an upper bound, in milliseconds, of the duration below which fall the given percentage of the
+		 *         transactions. The longest transaction bounds the last bucket.
+		 */
+		public double getPercentile(double percentile) {
+			long[] counts = new long[BUCKETS];
+			long count = 0;
+
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				counts[bucket] = buckets.get(bucket);
+				count += counts[bucket];
+			}
+
+			long target = (long) Math.ceil(count * percentile / 100d);
+			long seen = 0;
+
+			for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+				seen += counts[bucket];
+
+				if (seen > 0 && seen >= target) {
+					return Math.min(1L << bucket, getMaxDuration());
+				}
+			}
+
+			return getMaxDuration();
+		}
+	}
+}
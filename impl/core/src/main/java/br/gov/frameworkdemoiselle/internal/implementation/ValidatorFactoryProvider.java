@@ -0,0 +1,139 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.implementation;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.validation.Validation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import br.gov.frameworkdemoiselle.internal.producer.LoggerProducer;
+import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
+
+/**
+ * Holds the single {@link ValidatorFactory} used by the framework (configuration loading and management properties).
+ * Building a factory is expensive, so it is built lazily on the first request and reused for the whole application.
+ * <p>
+ * This is not a producer on purpose: Java EE containers already provide {@link ValidatorFactory} and {@link Validator}
+ * beans and a second producer would make them ambiguous.
+ * <p>
+ * The factory is closed when the application ends, releasing the resources held by Bean Validation 1.1 providers.
+ * 
+ * @author SERPRO
+ */
+@ApplicationScoped
+public class ValidatorFactoryProvider implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient volatile ValidatorFactory factory;
+
+	private transient volatile ValidationException failure;
+
+	/**
+	 * @return the application wide {@link ValidatorFactory}.
+	 * @throws ValidationException
+	 *             if no Bean Validation provider is available. The failure is remembered, so the lookup for a provider
+	 *             is not repeated.
+	 */
+	public ValidatorFactory getValidatorFactory() {
+		ValidatorFactory result = this.factory;
+
+		if (result == null) {
+			synchronized (this) {
+				if (this.failure == null && this.factory == null) {
+					try {
+						this.factory = Validation.buildDefaultValidatorFactory();
+
+					} catch (ValidationException cause) {
+						this.failure = cause;
+					}
+				}
+
+				if (this.failure != null) {
+					throw new ValidationException(this.failure.getMessage(), this.failure);
+				}
+
+				result = this.factory;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return a {@link Validator} obtained from the application wide {@link ValidatorFactory}.
+	 * @throws ValidationException
+	 *             if no Bean Validation provider is available.
+	 */
+	public Validator getValidator() {
+		return getValidatorFactory().getValidator();
+	}
+
+	/**
+	 * Closes the application wide {@link ValidatorFactory}, if it was built.
+	 */
+	@PreDestroy
+	public synchronized void close() {
+		ValidatorFactory current = this.factory;
+		this.factory = null;
+		this.failure = null;
+
+		if (current != null) {
+			// ValidatorFactory.close() só existe a partir da Bean Validation 1.1, por isso é chamado por reflexão.
+			try {
+				Method close = current.getClass().getMethod("close");
+				close.invoke(current);
+
+			} catch (NoSuchMethodException cause) {
+				// Os provedores da versão 1.0 não têm recursos a liberar.
+
+			} catch (Exception cause) {
+				LoggerProducer.create(ValidatorFactoryProvider.class).warn(
+						Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle")).getString(
+								"validator-factory-close-failed"), cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.management;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import br.gov.frameworkdemoiselle.annotation.ManagedOperation;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty.ManagedPropertyAccess;
+import br.gov.frameworkdemoiselle.annotation.OperationParameter;
+import br.gov.frameworkdemoiselle.annotation.OperationType;
+import br.gov.frameworkdemoiselle.internal.configuration.ConfigurationConfig;
+import br.gov.frameworkdemoiselle.internal.implementation.ConditionalManagedType;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationLoadStatistics;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationStatistics;
+import br.gov.frameworkdemoiselle.stereotype.ManagementController;
+
+/**
+ * Exposes the figures collected while loading the configuration classes to the management extensions (JMX, for
+ * instance). Registered only when the key <i>frameworkdemoiselle.configuration.monitoring.enabled</i> is
+ * <code>true</code>. Times are reported in milliseconds.
+ * 
+ * @author SERPRO
+ */
+@ManagementController(description = "Configuration loading statistics")
+public class ConfigurationMonitor implements ConditionalManagedType {
+
+	@Inject
+	private ConfigurationStatistics statistics;
+
+	@Inject
+	private ConfigurationConfig config;
+
+	@ManagedProperty(description = "Number of loaded configuration classes", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private int loadedClasses;
+
+	@ManagedProperty(description = "Number of configuration loads, including reloads", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long loads;
+
+	@ManagedProperty(description = "Total time spent obtaining parsed resources (ms)", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long parseTime;
+
+	@ManagedProperty(description = "Total time spent extracting values (ms)", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long extractionTime;
+
+	@ManagedProperty(description = "Total time spent validating values (ms)", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long validationTime;
+
+	@ManagedProperty(description = "Number of keys found in the resources", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long resolvedKeys;
+
+	@ManagedProperty(description = "Number of keys not found, which kept their default values", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long defaultedKeys;
+
+	@Override
+	public boolean isManagementEnabled() {
+		return config.isMonitoringEnabled();
+	}
+
+	public int getLoadedClasses() {
+		return statistics.getLoadedTypes().size();
+	}
+
+	public long getLoads() {
+		return statistics.getLoads();
+	}
+
+	public long getParseTime() {
+		return TimeUnit.NANOSECONDS.toMillis(statistics.getParseNanos());
+	}
+
+	public long getExtractionTime() {
+		return TimeUnit.NANOSECONDS.toMillis(statistics.getExtractionNanos());
+	}
+
+	public long getValidationTime() {
+		return TimeUnit.NANOSECONDS.toMillis(statistics.getValidationNanos());
+	}
+
+	public long getResolvedKeys() {
+		return statistics.getResolvedKeys();
+	}
+
+	public long getDefaultedKeys() {
+		return statistics.getDefaultedKeys();
+	}
+
+	@ManagedOperation(description = "Lists the loaded configuration classes", type = OperationType.INFO)
+	public String listClasses() {
+		return statistics.getLoadedTypes().toString();
+	}
+
+	@ManagedOperation(description = "Figures of the last load of a configuration class", type = OperationType.INFO)
+	public String describeClass(
+			@OperationParameter(name = "className", description = "Fully qualified name of the configuration class") String className) {
+		ConfigurationLoadStatistics lastLoad = statistics.getLastLoad(className);
+		return lastLoad == null ? null : lastLoad.toString();
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.management;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import br.gov.frameworkdemoiselle.annotation.ManagedOperation;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty.ManagedPropertyAccess;
+import br.gov.frameworkdemoiselle.annotation.OperationType;
+import br.gov.frameworkdemoiselle.context.CustomContext;
+import br.gov.frameworkdemoiselle.internal.bootstrap.CustomContextBootstrap;
+import br.gov.frameworkdemoiselle.internal.configuration.ContextConfig;
+import br.gov.frameworkdemoiselle.internal.context.AbstractCustomContext;
+import br.gov.frameworkdemoiselle.internal.context.ContextMetrics;
+import br.gov.frameworkdemoiselle.internal.implementation.ConditionalManagedType;
+import br.gov.frameworkdemoiselle.stereotype.ManagementController;
+
+/**
+ * Exposes the occupancy of the custom contexts to the management extensions (JMX, for instance), summed over all
+ * contexts. Registered only when the key <i>frameworkdemoiselle.context.monitoring.enabled</i> is <code>true</code>.
+ * Stores in use for longer than <i>frameworkdemoiselle.context.monitoring.store.age</i> seconds are reported as
+ * possible leaks.
+ * 
+ * @author SERPRO
+ */
+@ManagementController(description = "Custom contexts occupancy and leak detection")
+public class ContextMonitor implements ConditionalManagedType {
+
+	@Inject
+	private CustomContextBootstrap bootstrap;
+
+	@Inject
+	private ContextConfig config;
+
+	@ManagedProperty(description = "Number of bean stores in use", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private int activeStores;
+
+	@ManagedProperty(description = "Number of instances held by the bean stores in use", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long instances;
+
+	@ManagedProperty(description = "Number of instances created", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long createdInstances;
+
+	@ManagedProperty(description = "Number of instances destroyed", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long destroyedInstances;
+
+	@ManagedProperty(description = "Instances created per second, on average", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private double creationRate;
+
+	@ManagedProperty(description = "Instances destroyed per second, on average", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private double destructionRate;
+
+	@ManagedProperty(description = "Number of bean stores in use for longer than the configured age", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private int leakedStores;
+
+	@Override
+	public boolean isManagementEnabled() {
+		return config.isMonitoringEnabled();
+	}
+
+	public int getActiveStores() {
+		int result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getActiveStores();
+		}
+
+		return result;
+	}
+
+	public long getInstances() {
+		long result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getInstances();
+		}
+
+		return result;
+	}
+
+	public long getCreatedInstances() {
+		long result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getCreatedInstances();
+		}
+
+		return result;
+	}
+
+	public long getDestroyedInstances() {
+		long result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getDestroyedInstances();
+		}
+
+		return result;
+	}
+
+	public double getCreationRate() {
+		double result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getCreationRate();
+		}
+
+		return result;
+	}
+
+	public double getDestructionRate() {
+		double result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getDestructionRate();
+		}
+
+		return result;
+	}
+
+	public int getLeakedStores() {
+		int result = 0;
+
+		for (ContextMetrics metrics : getMetrics()) {
+			result += metrics.getStoresOlderThan(getMaxAge()).size();
+		}
+
+		return result;
+	}
+
+	@ManagedOperation(description = "Occupancy of each custom context", type = OperationType.INFO)
+	public String describeContexts() {
+		StringBuilder result = new StringBuilder();
+
+		for (AbstractCustomContext context : getContexts()) {
+			ContextMetrics metrics = context.getMetrics();
+
+			result.append(context.getClass().getName()).append(" [").append(context.getScope().getSimpleName())
+					.append("]: activeStores=").append(metrics.getActiveStores()).append(", instances=")
+					.append(metrics.getInstances()).append(", createdInstances=").append(metrics.getCreatedInstances())
+					.append(", destroyedInstances=").append(metrics.getDestroyedInstances()).append('\n');
+		}
+
+		return result.toString();
+	}
+
+	@ManagedOperation(description = "Lists the bean stores in use for longer than the configured age", type = OperationType.INFO)
+	public String listLeakedStores() {
+		StringBuilder result = new StringBuilder();
+
+		for (AbstractCustomContext context : getContexts()) {
+			for (String store : context.getMetrics().getStoresOlderThan(getMaxAge())) {
+				result.append(context.getScope().getSimpleName()).append(": ").append(store).append('\n');
+			}
+		}
+
+		return result.toString();
+	}
+
+	private long getMaxAge() {
+		return TimeUnit.SECONDS.toMillis(config.getStoreAge());
+	}
+
+	private List<AbstractCustomContext> getContexts() {
+		List<AbstractCustomContext> result = new ArrayList<AbstractCustomContext>();
+		List<CustomContext> contexts = bootstrap.getCustomContexts();
+
+		if (contexts != null) {
+			for (CustomContext context : contexts) {
+				if (context instanceof AbstractCustomContext) {
+					result.add((AbstractCustomContext) context);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private List<ContextMetrics> getMetrics() {
+		List<ContextMetrics> result = new ArrayList<ContextMetrics>();
+
+		for (AbstractCustomContext context : getContexts()) {
+			result.add(context.getMetrics());
+		}
+
+		return result;
+	}
+}
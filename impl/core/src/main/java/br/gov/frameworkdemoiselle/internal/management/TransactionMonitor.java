@@ -0,0 +1,179 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.management;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import br.gov.frameworkdemoiselle.annotation.ManagedOperation;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty.ManagedPropertyAccess;
+import br.gov.frameworkdemoiselle.annotation.OperationType;
+import br.gov.frameworkdemoiselle.internal.configuration.TransactionConfig;
+import br.gov.frameworkdemoiselle.internal.implementation.ConditionalManagedType;
+import br.gov.frameworkdemoiselle.internal.implementation.TransactionMetrics;
+import br.gov.frameworkdemoiselle.internal.implementation.TransactionMetrics.MethodMetrics;
+import br.gov.frameworkdemoiselle.stereotype.ManagementController;
+
+/**
+ * Exposes the duration and outcome of the transactions to the management extensions (JMX, for instance), summed over
+ * all methods that began a transaction. Registered only when the key
+ * <i>frameworkdemoiselle.transaction.monitoring.enabled</i> is <code>true</code>.
+ * 
+ * @author SERPRO
+ */
+@ManagementController(description = "Transactions duration and outcome")
+public class TransactionMonitor implements ConditionalManagedType {
+
+	@Inject
+	private TransactionMetrics metrics;
+
+	@Inject
+	private TransactionConfig config;
+
+	@ManagedProperty(description = "Number of completed transactions", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long transactions;
+
+	@ManagedProperty(description = "Number of committed transactions", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long commits;
+
+	@ManagedProperty(description = "Number of rolled back transactions", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long rollbacks;
+
+	@ManagedProperty(description = "Average duration of the transactions, in milliseconds", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private double averageDuration;
+
+	@ManagedProperty(description = "Duration of the longest transaction, in milliseconds", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private double maxDuration;
+
+	@Override
+	public boolean isManagementEnabled() {
+		return config.isMonitoringEnabled();
+	}
+
+	public long getTransactions() {
+		long result = 0;
+
+		for (MethodMetrics method : metrics.getMethods()) {
+			result += method.getCount();
+		}
+
+		return result;
+	}
+
+	public long getCommits() {
+		long result = 0;
+
+		for (MethodMetrics method : metrics.getMethods()) {
+			result += method.getCommits();
+		}
+
+		return result;
+	}
+
+	public long getRollbacks() {
+		long result = 0;
+
+		for (MethodMetrics method : metrics.getMethods()) {
+			result += method.getRollbacks();
+		}
+
+		return result;
+	}
+
+	public double getAverageDuration() {
+		double total = 0;
+		long count = 0;
+
+		for (MethodMetrics method : metrics.getMethods()) {
+			total += method.getTotalDuration();
+			count += method.getCount();
+		}
+
+		return count == 0 ? 0 : total / count;
+	}
+
+	public double getMaxDuration() {
+		double result = 0;
+
+		for (MethodMetrics method : metrics.getMethods()) {
+			result = Math.max(result, method.getMaxDuration());
+		}
+
+		return result;
+	}
+
+	@ManagedOperation(description = "Duration and outcome of the transactions begun by each method, slowest first", type = OperationType.INFO)
+	public String describeTransactions() {
+		List<MethodMetrics> methods = metrics.getMethods();
+
+		Collections.sort(methods, new Comparator<MethodMetrics>() {
+
+			@Override
+			public int compare(MethodMetrics first, MethodMetrics second) {
+				return Double.compare(second.getTotalDuration(), first.getTotalDuration());
+			}
+		});
+
+		StringBuilder result = new StringBuilder();
+
+		for (MethodMetrics method : methods) {
+			result.append(method.getMethod()).append(": count=").append(method.getCount()).append(", commits=")
+					.append(method.getCommits()).append(", rollbacks=").append(method.getRollbacks())
+					.append(", maxDepth=").append(method.getMaxDepth()).append(", average=")
+					.append(format(method.getAverageDuration())).append("ms, p50<=")
+					.append(format(method.getPercentile(50))).append("ms, p90<=")
+					.append(format(method.getPercentile(90))).append("ms, p99<=")
+					.append(format(method.getPercentile(99))).append("ms, max=")
+					.append(format(method.getMaxDuration())).append("ms\n");
+		}
+
+		return result.toString();
+	}
+
+	@ManagedOperation(description = "Discards the figures recorded so far", type = OperationType.ACTION)
+	public void reset() {
+		metrics.reset();
+	}
+
+	private static String format(double millis) {
+		return String.format("%.3f", millis);
+	}
+}
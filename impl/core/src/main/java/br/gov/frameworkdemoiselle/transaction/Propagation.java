@@ -0,0 +1,72 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.transaction;
+
+/**
+ * How a {@link Transactional} method relates to the transaction running when it is called.
+ * 
+ * @author SERPRO
+ * @see Transactional#propagation()
+ */
+public enum Propagation {
+
+	/**
+	 * Joins the running transaction, or begins a new one if there is none. This is the default.
+	 */
+	REQUIRED,
+
+	/**
+	 * Always begins a new transaction, suspending the running one until the method returns. The new transaction is
+	 * committed or rolled back on its own, regardless of the outcome of the suspended one.
+	 */
+	REQUIRES_NEW,
+
+	/**
+	 * Joins the running transaction, or runs without a transaction if there is none.
+	 */
+	SUPPORTS,
+
+	/**
+	 * Always runs without a transaction, suspending the running one until the method returns.
+	 */
+	NOT_SUPPORTED,
+
+	/**
+	 * Joins the running transaction, or throws a {@link TransactionException} if there is none.
+	 */
+	MANDATORY
+}
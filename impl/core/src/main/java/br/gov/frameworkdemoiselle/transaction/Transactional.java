@@ -44,6 +44,7 @@ import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
+import javax.enterprise.util.Nonbinding;
 import javax.interceptor.InterceptorBinding;
 
 /**
@@ -59,4 +60,19 @@ import javax.interceptor.InterceptorBinding;
 @Target({ METHOD, TYPE })
 @Retention(RUNTIME)
 public @interface Transactional {
+
+	/**
+	 * Indicates that the transaction begun for this method will only read data. The transaction strategy may use this
+	 * hint to avoid the costs of writing, if it implements {@link ReadOnlyCapableTransaction}. Only the method that
+	 * begins the transaction defines whether it is read-only, methods called inside it join the running transaction.
+	 */
+	@Nonbinding
+	boolean readOnly() default false;
+
+	/**
+	 * How this method relates to the transaction running when it is called. By default it joins the running transaction
+	 * or begins a new one.
+	 */
+	@Nonbinding
+	Propagation propagation() default Propagation.REQUIRED;
 }
@@ -37,6 +37,9 @@
 package br.gov.frameworkdemoiselle.transaction;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.RequestScoped;
@@ -48,6 +51,9 @@ import javax.interceptor.InvocationContext;
 import org.slf4j.Logger;
 
 import br.gov.frameworkdemoiselle.exception.ApplicationException;
+import br.gov.frameworkdemoiselle.internal.configuration.TransactionConfig;
+import br.gov.frameworkdemoiselle.internal.implementation.SynchronizationDispatcher;
+import br.gov.frameworkdemoiselle.internal.implementation.TransactionMetrics;
 import br.gov.frameworkdemoiselle.util.Beans;
 import br.gov.frameworkdemoiselle.util.NameQualifier;
 import br.gov.frameworkdemoiselle.util.ResourceBundle;
@@ -66,6 +72,12 @@ public class TransactionalInterceptor implements Serializable {
 
 	private transient Logger logger;
 
+	private transient TransactionConfig config;
+
+	private transient TransactionMetrics metrics;
+
+	private transient SynchronizationDispatcher dispatcher;
+
 	private TransactionContext getTransactionContext() {
 		if (this.transactionContext == null) {
 			this.transactionContext = Beans.getReference(TransactionContext.class);
@@ -111,11 +123,51 @@ public class TransactionalInterceptor implements Serializable {
 	 */
 	@AroundInvoke
 	public Object manage(final InvocationContext ic) throws Exception {
-		initiate();
+		Transactional annotation = getAnnotation(ic);
+		boolean readOnly = annotation != null && annotation.readOnly();
+		Propagation propagation = annotation != null ? annotation.propagation() : Propagation.REQUIRED;
+		Transaction transaction = getTransactionContext().getCurrentTransaction();
+		Object result;
+
+		switch (propagation) {
+			case SUPPORTS:
+				result = transaction.isActive() ? proceedInTransaction(ic, readOnly) : ic.proceed();
+				break;
+
+			case MANDATORY:
+				if (!transaction.isActive()) {
+					throw new TransactionException(getBundle().getString("transaction-mandatory",
+							ic.getMethod().toGenericString()));
+				}
+
+				result = proceedInTransaction(ic, readOnly);
+				break;
+
+			case NOT_SUPPORTED:
+				result = transaction.isActive() ? proceedSuspended(ic, transaction, false, readOnly) : ic.proceed();
+				break;
+
+			case REQUIRES_NEW:
+				result = transaction.isActive() ? proceedSuspended(ic, transaction, true, readOnly)
+						: proceedInTransaction(ic, readOnly);
+				break;
+
+			default:
+				result = proceedInTransaction(ic, readOnly);
+		}
+
+		return result;
+	}
+
+	private Object proceedInTransaction(final InvocationContext ic, boolean readOnly) throws Exception {
+		initiate(readOnly);
 
 		Object result = null;
 		try {
-			getLogger().debug(getBundle().getString("transactional-execution", ic.getMethod().toGenericString()));
+			if (getLogger().isDebugEnabled()) {
+				getLogger().debug(getBundle().getString("transactional-execution", ic.getMethod().toGenericString()));
+			}
+
 			result = ic.proceed();
 
 		} catch (Exception cause) {
@@ -123,24 +175,74 @@ public class TransactionalInterceptor implements Serializable {
 			throw cause;
 
 		} finally {
-			complete();
+			complete(ic);
 		}
 
 		return result;
 	}
 
-	private void initiate() {
+	/*
+	 * Suspende a transação em andamento e, conforme a propagação, executa o método em uma nova transação ou sem
+	 * transação. O estado da transação suspensa é guardado e restaurado ao final.
+	 */
+	private Object proceedSuspended(final InvocationContext ic, Transaction transaction, boolean newTransaction,
+			boolean readOnly) throws Exception {
+		if (!(transaction instanceof SuspendableTransaction)) {
+			throw new TransactionException(getBundle().getString("transaction-suspend-not-supported",
+					transaction.getClass().getName(), ic.getMethod().toGenericString()));
+		}
+
+		SuspendableTransaction suspendable = (SuspendableTransaction) transaction;
+		TransactionInfo info = getTransactionInfo();
+		TransactionInfo snapshot = info.snapshot();
+
+		Object suspended = suspendable.suspend();
+		info.clear();
+		logInfo("transaction-suspended");
+
+		try {
+			return newTransaction ? proceedInTransaction(ic, readOnly) : ic.proceed();
+
+		} finally {
+			suspendable.resume(suspended);
+			info.restore(snapshot);
+			logInfo("transaction-resumed");
+		}
+	}
+
+	private void initiate(boolean readOnly) {
 		Transaction transaction = getTransactionContext().getCurrentTransaction();
 
 		if (!transaction.isActive()) {
-			transaction.begin();
+			if (readOnly && transaction instanceof ReadOnlyCapableTransaction) {
+				((ReadOnlyCapableTransaction) transaction).begin(true);
+				logInfo("begin-read-only-transaction");
+
+			} else {
+				transaction.begin();
+				logInfo("begin-transaction");
+			}
+
 			getTransactionInfo().markAsOwner();
-			getLogger().info(getBundle().getString("begin-transaction"));
+
+			if (isTimed()) {
+				getTransactionInfo().setBeginTime(System.nanoTime());
+			}
 		}
 
 		getTransactionInfo().incrementCounter();
 	}
 
+	private Transactional getAnnotation(final InvocationContext ic) {
+		Transactional annotation = ic.getMethod().getAnnotation(Transactional.class);
+
+		if (annotation == null) {
+			annotation = ic.getTarget().getClass().getAnnotation(Transactional.class);
+		}
+
+		return annotation;
+	}
+
 	private void handleException(final Exception cause) {
 		Transaction transaction = getTransactionContext().getCurrentTransaction();
 
@@ -154,37 +256,130 @@ public class TransactionalInterceptor implements Serializable {
 
 			if (rollback) {
 				transaction.setRollbackOnly();
-				getLogger().info(getBundle().getString("transaction-marked-rollback", cause.getMessage()));
+				logInfo("transaction-marked-rollback", cause.getMessage());
 			}
 		}
 	}
 
-	private void complete() {
+	private void complete(final InvocationContext ic) {
 		Transaction transaction = getTransactionContext().getCurrentTransaction();
 		getTransactionInfo().decrementCounter();
 
 		if (getTransactionInfo().getCounter() == 0 && transaction.isActive()) {
 
 			if (getTransactionInfo().isOwner()) {
+				List<TransactionSynchronization> synchronizations = getTransactionInfo().getSynchronizations();
+				RuntimeException failure = null;
+
+				if (!transaction.isMarkedRollback() && !synchronizations.isEmpty()) {
+					try {
+						getDispatcher().beforeCompletion(synchronizations);
+
+					} catch (RuntimeException cause) {
+						//A falha de uma sincronização desfaz a transação e é repassada a quem chamou o método.
+						failure = cause;
+						transaction.setRollbackOnly();
+						logInfo("transaction-marked-rollback", cause.getMessage());
+					}
+				}
+
 				if (transaction.isMarkedRollback()) {
 					transaction.rollback();
+					record(ic, false);
 					getTransactionInfo().clear();
 
-					getLogger().info(getBundle().getString("transaction-rolledback"));
+					logInfo("transaction-rolledback");
+					getDispatcher().afterCompletion(synchronizations, false);
+
+					if (failure != null) {
+						throw failure;
+					}
 
 				} else {
-					transaction.commit();
+					try {
+						transaction.commit();
+
+					} catch (RuntimeException cause) {
+						record(ic, false);
+						getTransactionInfo().clear();
+
+						getDispatcher().afterCompletion(synchronizations, false);
+						throw cause;
+					}
+
+					record(ic, true);
 					getTransactionInfo().clear();
 
-					getLogger().info(getBundle().getString("transaction-commited"));
+					logInfo("transaction-commited");
+					getDispatcher().afterCompletion(synchronizations, true);
 				}
 			}
 
 		} else if (getTransactionInfo().getCounter() == 0 && !transaction.isActive()) {
-			getLogger().info(getBundle().getString("transaction-already-finalized"));
+			logInfo("transaction-already-finalized");
 		}
 	}
 
+	private boolean isTimed() {
+		return getConfig().isMonitoringEnabled() || getConfig().getSlowThreshold() > 0;
+	}
+
+	/*
+	 * Registra a duração e o resultado da transação iniciada pelo método. Só é chamado pelo método que iniciou a
+	 * transação, antes que o TransactionInfo seja limpo.
+	 */
+	private void record(final InvocationContext ic, boolean committed) {
+		TransactionInfo info = getTransactionInfo();
+
+		//O instante inicial não é registrado quando a medição estava desligada no início da transação.
+		if (info.getBeginTime() == 0) {
+			return;
+		}
+
+		long nanos = System.nanoTime() - info.getBeginTime();
+
+		if (getConfig().isMonitoringEnabled()) {
+			getMetrics().record(ic.getMethod(), nanos, committed, info.getMaxCounter());
+		}
+
+		long threshold = getConfig().getSlowThreshold();
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+
+		if (threshold > 0 && millis >= threshold) {
+			getLogger().warn(getBundle().getString("transaction-slow", ic.getMethod().toGenericString(), millis));
+		}
+	}
+
+	private void logInfo(String key, Object... params) {
+		if (getLogger().isInfoEnabled()) {
+			getLogger().info(getBundle().getString(key, params));
+		}
+	}
+
+	private TransactionConfig getConfig() {
+		if (config == null) {
+			config = Beans.getReference(TransactionConfig.class);
+		}
+
+		return config;
+	}
+
+	private SynchronizationDispatcher getDispatcher() {
+		if (dispatcher == null) {
+			dispatcher = Beans.getReference(SynchronizationDispatcher.class);
+		}
+
+		return dispatcher;
+	}
+
+	private TransactionMetrics getMetrics() {
+		if (metrics == null) {
+			metrics = Beans.getReference(TransactionMetrics.class);
+		}
+
+		return metrics;
+	}
+
 	private ResourceBundle getBundle() {
 		if (bundle == null) {
 			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
@@ -208,8 +403,14 @@ public class TransactionalInterceptor implements Serializable {
 
 		private int counter = 0;
 
+		private int maxCounter = 0;
+
 		private boolean owner;
 
+		private long beginTime;
+
+		private List<TransactionSynchronization> synchronizations = new ArrayList<TransactionSynchronization>();
+
 		public TransactionInfo() {
 			clear();
 		}
@@ -217,6 +418,30 @@ public class TransactionalInterceptor implements Serializable {
 		public void clear() {
 			this.owner = false;
 			this.counter = 0;
+			this.maxCounter = 0;
+			this.beginTime = 0;
+			this.synchronizations = new ArrayList<TransactionSynchronization>();
+		}
+
+		/**
+		 * @return a copy of the state of the running transaction, to be restored after it is suspended.
+		 */
+		public TransactionInfo snapshot() {
+			TransactionInfo snapshot = new TransactionInfo();
+			snapshot.restore(this);
+
+			return snapshot;
+		}
+
+		/**
+		 * Restores the state of a suspended transaction, after it is resumed.
+		 */
+		public void restore(TransactionInfo snapshot) {
+			this.owner = snapshot.owner;
+			this.counter = snapshot.counter;
+			this.maxCounter = snapshot.maxCounter;
+			this.beginTime = snapshot.beginTime;
+			this.synchronizations = snapshot.synchronizations;
 		}
 
 		public int getCounter() {
@@ -225,6 +450,33 @@ public class TransactionalInterceptor implements Serializable {
 
 		public void incrementCounter() {
 			this.counter++;
+			this.maxCounter = Math.max(this.maxCounter, this.counter);
+		}
+
+		/**
+		 * @return how deep the transactional methods were nested since the transaction began.
+		 */
+		public int getMaxCounter() {
+			return maxCounter;
+		}
+
+		public void addSynchronization(TransactionSynchronization synchronization) {
+			this.synchronizations.add(synchronization);
+		}
+
+		/**
+		 * @return the synchronizations registered in the running transaction, in the order they were registered.
+		 */
+		public List<TransactionSynchronization> getSynchronizations() {
+			return synchronizations;
+		}
+
+		public long getBeginTime() {
+			return beginTime;
+		}
+
+		public void setBeginTime(long beginTime) {
+			this.beginTime = beginTime;
 		}
 
 		public void decrementCounter() {
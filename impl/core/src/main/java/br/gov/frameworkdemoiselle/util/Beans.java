@@ -40,9 +40,12 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Member;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.AmbiguousResolutionException;
@@ -59,6 +62,11 @@ import br.gov.frameworkdemoiselle.DemoiselleException;
  * contextual references for beans.
  * <p>
  * All its public methods are static.
+ * <p>
+ * Resolved beans are cached by required type (or EL name) and qualifiers, so only the first lookup for a given key
+ * goes through {@link BeanManager#getBeans(Type, Annotation...)}. For beans of a normal scope the client proxy itself
+ * is cached, since it is valid for every thread and every context instance. The cache belongs to the current
+ * {@link BeanManager} and is discarded whenever a new one is set.
  * 
  * @author SERPRO
  */
@@ -66,11 +74,14 @@ public final class Beans {
 
 	private static BeanManager beanManager = null;
 
+	private static volatile ConcurrentMap<ResolutionKey, Resolution> resolutionCache = new ConcurrentHashMap<ResolutionKey, Resolution>();
+
 	private Beans() {
 	}
 
 	public static void setBeanManager(BeanManager manager) {
 		beanManager = manager;
+		resolutionCache = new ConcurrentHashMap<ResolutionKey, Resolution>();
 	}
 
 	public static BeanManager getBeanManager() {
@@ -89,11 +100,12 @@ public final class Beans {
 	 * @throws DemoiselleException
 	 *             if no bean are avaliable to be injected for the given Class and qualifiers.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T> T getReference(final Class<T> beanClass, Annotation... qualifiers) {
 		T instance;
 
 		try {
-			instance = (T) getReference(getBeanManager().getBeans(beanClass, qualifiers), beanClass, qualifiers);
+			instance = (T) getResolution(beanClass, qualifiers).getReference();
 
 		} catch (NoSuchElementException cause) {
 			StringBuffer buffer = new StringBuffer();
@@ -121,11 +133,12 @@ public final class Beans {
 	 * @throws DemoiselleException
 	 *             if no bean are avaliable to be injected for the given Class.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T> T getReference(final Class<T> beanClass) {
 		T instance;
 
 		try {
-			instance = (T) getReference(getBeanManager().getBeans(beanClass), beanClass);
+			instance = (T) getResolution(beanClass).getReference();
 
 		} catch (NoSuchElementException cause) {
 			String message = getBundle().getString("bean-not-found", beanClass.getCanonicalName());
@@ -150,7 +163,7 @@ public final class Beans {
 		T instance;
 
 		try {
-			instance = (T) getReference(getBeanManager().getBeans(beanName));
+			instance = (T) getResolution(beanName).getReference();
 
 		} catch (NoSuchElementException cause) {
 			String message = getBundle().getString("bean-not-found", beanName);
@@ -160,29 +173,134 @@ public final class Beans {
 		return instance;
 	}
 
-	@SuppressWarnings("unchecked")
-	private static <T> T getReference(Set<Bean<?>> beans, Class<T> beanClass, Annotation... qualifiers) {
+	private static Resolution getResolution(Class<?> beanClass, Annotation... qualifiers) {
+		ResolutionKey key = new ResolutionKey(beanClass, qualifiers);
+		Resolution resolution = resolutionCache.get(key);
+
+		if (resolution == null) {
+			resolution = resolve(getBeanManager().getBeans(beanClass, qualifiers), beanClass, qualifiers);
+			resolution = putIfAbsent(key, resolution);
+		}
+
+		return resolution;
+	}
+
+	private static Resolution getResolution(String beanName) {
+		ResolutionKey key = new ResolutionKey(beanName);
+		Resolution resolution = resolutionCache.get(key);
+
+		if (resolution == null) {
+			resolution = resolve(getBeanManager().getBeans(beanName), null);
+			resolution = putIfAbsent(key, resolution);
+		}
+
+		return resolution;
+	}
+
+	private static Resolution putIfAbsent(ResolutionKey key, Resolution resolution) {
+		Resolution previous = resolutionCache.putIfAbsent(key, resolution);
+		return previous == null ? resolution : previous;
+	}
+
+	private static Resolution resolve(Set<Bean<?>> beans, Class<?> beanClass, Annotation... qualifiers) {
 		if (beans.size() > 1) {
-			String message = getBundle().getString("ambiguous-bean-resolution", beanClass.getName(), beans.toString());
+			String name = beanClass == null ? beans.iterator().next().getName() : beanClass.getName();
+			String message = getBundle().getString("ambiguous-bean-resolution", name, beans.toString());
 			throw new DemoiselleException(message, new AmbiguousResolutionException());
 		}
 
 		Bean<?> bean = beans.iterator().next();
-		CreationalContext<?> context = getBeanManager().createCreationalContext(bean);
 		Type beanType = beanClass == null ? bean.getBeanClass() : beanClass;
 		InjectionPoint injectionPoint = new CustomInjectionPoint(bean, beanType, qualifiers);
 
-		return (T) getBeanManager().getInjectableReference(injectionPoint, context);
-	}
-
-	private static <T> T getReference(Set<Bean<?>> beans) {
-		return getReference(beans, (Class<T>) null);
+		return new Resolution(bean, injectionPoint, getBeanManager().isNormalScope(bean.getScope()));
 	}
 
 	private static ResourceBundle getBundle() {
 		return Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-core-bundle"));
 	}
 
+	/**
+	 * Key of the resolution cache: either a required type with its qualifiers or an EL name.
+	 */
+	static final class ResolutionKey {
+
+		private final Object type;
+
+		private final Set<Annotation> qualifiers;
+
+		private final int hashCode;
+
+		ResolutionKey(Class<?> type, Annotation... qualifiers) {
+			this.type = type;
+			this.qualifiers = qualifiers.length == 0 ? Collections.<Annotation> emptySet() : new HashSet<Annotation>(
+					Arrays.asList(qualifiers));
+			this.hashCode = 31 * type.hashCode() + this.qualifiers.hashCode();
+		}
+
+		ResolutionKey(String name) {
+			this.type = name;
+			this.qualifiers = Collections.<Annotation> emptySet();
+			this.hashCode = name.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof ResolutionKey)) {
+				return false;
+			}
+
+			ResolutionKey other = (ResolutionKey) obj;
+			return this.type.equals(other.type) && this.qualifiers.equals(other.qualifiers);
+		}
+	}
+
+	/**
+	 * A resolved bean together with the injection point used to obtain its references. For normal scoped beans the
+	 * client proxy is obtained once and kept here, other beans get a new reference (and creational context) on every
+	 * call.
+	 */
+	static final class Resolution {
+
+		private final Bean<?> bean;
+
+		private final InjectionPoint injectionPoint;
+
+		private final boolean normalScoped;
+
+		private volatile Object proxy;
+
+		Resolution(Bean<?> bean, InjectionPoint injectionPoint, boolean normalScoped) {
+			this.bean = bean;
+			this.injectionPoint = injectionPoint;
+			this.normalScoped = normalScoped;
+		}
+
+		Object getReference() {
+			Object reference = this.proxy;
+
+			if (reference == null) {
+				CreationalContext<?> context = getBeanManager().createCreationalContext(this.bean);
+				reference = getBeanManager().getInjectableReference(this.injectionPoint, context);
+
+				if (this.normalScoped) {
+					this.proxy = reference;
+				}
+			}
+
+			return reference;
+		}
+	}
+
 	static class CustomInjectionPoint implements InjectionPoint {
 
 		private final Bean<?> bean;
@@ -0,0 +1,94 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package asynchronous;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import br.gov.frameworkdemoiselle.asynchronous.AsyncResult;
+import br.gov.frameworkdemoiselle.asynchronous.Asynchronous;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+public class AsynchronousBean {
+
+	private volatile String lastThread;
+
+	@Asynchronous
+	public Future<String> currentThread() {
+		return new AsyncResult<String>(Thread.currentThread().getName());
+	}
+
+	@Asynchronous
+	public Future<String> readRequestData() {
+		RequestBean bean = Beans.getReference(RequestBean.class);
+		String data = bean.getData();
+		bean.setData("asynchronous");
+		return new AsyncResult<String>(data);
+	}
+
+	@Asynchronous
+	public Future<String> holdRequestData(CountDownLatch started, CountDownLatch release) throws InterruptedException {
+		RequestBean bean = Beans.getReference(RequestBean.class);
+		bean.setData("asynchronous");
+
+		started.countDown();
+		release.await(10, TimeUnit.SECONDS);
+
+		return new AsyncResult<String>(bean.getData());
+	}
+
+	@Asynchronous
+	public Future<String> fail() {
+		throw new IllegalStateException("asynchronous failure");
+	}
+
+	@Asynchronous
+	public void fireAndForget(CountDownLatch latch) {
+		lastThread = Thread.currentThread().getName();
+		latch.countDown();
+	}
+
+	@Asynchronous
+	public String invalidReturnType() {
+		return "never";
+	}
+
+	public String getLastThread() {
+		return lastThread;
+	}
+}
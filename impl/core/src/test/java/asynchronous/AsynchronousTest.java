@@ -0,0 +1,195 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package asynchronous;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.DemoiselleException;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.internal.context.AbstractThreadLocalContext;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class AsynchronousTest {
+
+	@Inject
+	private AsynchronousBean bean;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		return Tests.createDeployment(AsynchronousTest.class);
+	}
+
+	@Test
+	public void runInAnotherThread() throws Exception {
+		String thread = bean.currentThread().get(10, TimeUnit.SECONDS);
+
+		assertNotSame(Thread.currentThread().getName(), thread);
+		assertTrue(thread.startsWith("demoiselle-asynchronous-"));
+	}
+
+	@Test
+	public void voidMethod() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		bean.fireAndForget(latch);
+
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertTrue(bean.getLastThread().startsWith("demoiselle-asynchronous-"));
+	}
+
+	@Test
+	public void ownRequestContext() throws Exception {
+		RequestContext context = Beans.getReference(RequestContext.class);
+		context.activate();
+
+		try {
+			Beans.getReference(RequestBean.class).setData("caller");
+
+			assertEquals("default", bean.readRequestData().get(10, TimeUnit.SECONDS));
+			assertEquals("default", bean.readRequestData().get(10, TimeUnit.SECONDS));
+			assertEquals("caller", Beans.getReference(RequestBean.class).getData());
+
+		} finally {
+			context.deactivate();
+		}
+	}
+
+	@Test
+	public void requestContextWithoutCallerContext() throws Exception {
+		assertEquals("default", bean.readRequestData().get(10, TimeUnit.SECONDS));
+		assertEquals("default", bean.readRequestData().get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void requestContextNotSharedWithOtherThreads() throws Exception {
+		final AbstractThreadLocalContext context = (AbstractThreadLocalContext) Beans
+				.getReference(RequestContext.class);
+
+		// Simula uma thread de requisição HTTP, onde o contêiner mantém o seu próprio contexto.
+		ExecutorService requestThread = Executors.newSingleThreadExecutor();
+
+		try {
+			assertTrue(requestThread.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					boolean activated = context.activateForCurrentThread();
+					Beans.getReference(RequestBean.class).setData("request");
+					return activated;
+				}
+			}).get(10, TimeUnit.SECONDS));
+
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			Future<String> result = bean.holdRequestData(started, release);
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+
+			// Enquanto a chamada assíncrona roda, a ativação feita pela thread do pool não vaza para as demais.
+			assertFalse(context.isActive());
+			assertEquals("request", requestThread.submit(new ReadRequestData()).get(10, TimeUnit.SECONDS));
+
+			release.countDown();
+			assertEquals("asynchronous", result.get(10, TimeUnit.SECONDS));
+
+			// O fim da chamada assíncrona não desativa o contexto que a outra thread ainda usa.
+			assertFalse(context.isActive());
+			assertEquals("request", requestThread.submit(new ReadRequestData()).get(10, TimeUnit.SECONDS));
+
+		} finally {
+			requestThread.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					context.clearInstances();
+					context.deactivateForCurrentThread();
+					context.bindStore(null);
+				}
+			}).get(10, TimeUnit.SECONDS);
+
+			requestThread.shutdown();
+		}
+	}
+
+	@Test
+	public void exceptionThrownByFuture() throws Exception {
+		try {
+			bean.fail().get(10, TimeUnit.SECONDS);
+			fail();
+
+		} catch (ExecutionException cause) {
+			assertEquals(IllegalStateException.class, cause.getCause().getClass());
+		}
+	}
+
+	@Test(expected = DemoiselleException.class)
+	public void invalidReturnType() {
+		bean.invalidReturnType();
+	}
+
+	private static class ReadRequestData implements Callable<String> {
+
+		@Override
+		public String call() throws Exception {
+			if (!Beans.getReference(RequestContext.class).isActive()) {
+				return null;
+			}
+
+			return Beans.getReference(RequestBean.class).getData();
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package configuration.concurrency;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+
+import test.Tests;
+
+/**
+ * Reads a configuration from many threads at the same time, starting before the object is loaded. Every thread must
+ * see the loaded value, never the default one, and the elapsed time of the lock-free proxy is logged next to a
+ * synchronized baseline doing the same work.
+ */
+@RunWith(Arquillian.class)
+public class ConfigurationConcurrencyTest {
+
+	private static final String PATH = "src/test/resources/configuration/concurrency";
+
+	private static final int THREADS = 8;
+
+	private static final int READS = 200000;
+
+	@Inject
+	private ConcurrentConfig config;
+
+	@Inject
+	private Logger logger;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		JavaArchive deployment = Tests.createDeployment(ConfigurationConcurrencyTest.class);
+		deployment.addAsResource(Tests.createFileAsset(PATH + "/demoiselle.properties"), "demoiselle.properties");
+		return deployment;
+	}
+
+	@Test
+	public void concurrentReadsSeeLoadedValue() throws Exception {
+		long elapsed = run(new Reader() {
+
+			@Override
+			public int read() {
+				return config.getPageSize();
+			}
+		});
+
+		final SynchronizedHolder holder = new SynchronizedHolder(config.getPageSize());
+		long baseline = run(new Reader() {
+
+			@Override
+			public int read() {
+				return holder.getPageSize();
+			}
+		});
+
+		logger.info("Configuration reads: proxy=" + elapsed / 1000000 + "ms, synchronized baseline=" + baseline
+				/ 1000000 + "ms");
+	}
+
+	private long run(final Reader reader) throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(new Callable<Integer>() {
+
+					@Override
+					public Integer call() throws Exception {
+						start.await();
+						int wrong = 0;
+
+						for (int j = 0; j < READS; j++) {
+							if (reader.read() != 25) {
+								wrong++;
+							}
+						}
+
+						return wrong;
+					}
+				}));
+			}
+
+			long begin = System.nanoTime();
+			start.countDown();
+
+			for (Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(0), result.get());
+			}
+
+			return System.nanoTime() - begin;
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private interface Reader {
+
+		int read();
+	}
+
+	private static class SynchronizedHolder {
+
+		private final int pageSize;
+
+		SynchronizedHolder(int pageSize) {
+			this.pageSize = pageSize;
+		}
+
+		synchronized int getPageSize() {
+			return pageSize;
+		}
+	}
+}
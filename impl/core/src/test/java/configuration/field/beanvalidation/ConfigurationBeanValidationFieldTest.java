@@ -37,6 +37,7 @@
 package configuration.field.beanvalidation;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
 import static junit.framework.Assert.fail;
 
 import javax.inject.Inject;
@@ -140,6 +141,19 @@ public class ConfigurationBeanValidationFieldTest {
 			fail();
 		} catch (ConfigurationException cause) {
 			assertEquals(ConstraintViolationException.class, cause.getCause().getClass());
+			assertEquals(2, ((ConstraintViolationException) cause.getCause()).getConstraintViolations().size());
+		}
+	}
+
+	@Test
+	public void reportViolationsOfAllFields() {
+		try {
+			propertyBeanValidationWithEmptyNotNullFieldConfig.getIntAttributeNull();
+			fail();
+		} catch (ConfigurationException cause) {
+			assertEquals(2, ((ConstraintViolationException) cause.getCause()).getConstraintViolations().size());
+			assertTrue(cause.getMessage().contains("intAttributeNull"));
+			assertTrue(cause.getMessage().contains("stringAttributeNull"));
 		}
 	}
 }
@@ -0,0 +1,82 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package configuration.field.extractor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.Configuration;
+
+import br.gov.frameworkdemoiselle.configuration.ConfigurationValueExtractor;
+
+public class HolderValueExtractor implements ConfigurationValueExtractor {
+
+	private static final ConcurrentMap<Type, AtomicInteger> selections = new ConcurrentHashMap<Type, AtomicInteger>();
+
+	@Override
+	public Object getValue(String prefix, String key, Field field, Configuration configuration) throws Exception {
+		Type argument = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+
+		if (argument == Integer.class) {
+			return new Holder<Integer>(configuration.getInt(prefix + key));
+		}
+
+		return new Holder<String>(configuration.getString(prefix + key));
+	}
+
+	@Override
+	public boolean isSupported(Field field) {
+		if (field.getType() != Holder.class) {
+			return false;
+		}
+
+		AtomicInteger count = new AtomicInteger();
+		AtomicInteger previous = selections.putIfAbsent(field.getGenericType(), count);
+		(previous != null ? previous : count).incrementAndGet();
+
+		return true;
+	}
+
+	public static Map<Type, AtomicInteger> getSelections() {
+		return selections;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package configuration.field.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.Test;
+
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationKeyIndex;
+
+public class ConfigurationKeyIndexTest {
+
+	@Test
+	public void keysUnderPrefix() {
+		BaseConfiguration configuration = new BaseConfiguration();
+		configuration.addProperty("configuration.test.map", "default");
+		configuration.addProperty("configuration.test.map.item1", "demoiselle");
+		configuration.addProperty("configuration.test.map.item2", "framework");
+		configuration.addProperty("configuration.test.mapOther", "other");
+		configuration.addProperty("configuration.other.map", "other");
+
+		ConfigurationKeyIndex index = ConfigurationKeyIndex.getIndex(configuration);
+
+		assertEquals(Arrays.asList("configuration.test.map", "configuration.test.map.item1",
+				"configuration.test.map.item2", "configuration.test.mapOther"),
+				new ArrayList<String>(index.getKeys("configuration.test.map")));
+		assertEquals(5, index.getKeys("").size());
+		assertTrue(index.getKeys("configuration.missing").isEmpty());
+	}
+
+	@Test
+	public void indexBuiltOncePerConfiguration() {
+		BaseConfiguration configuration = new BaseConfiguration();
+		configuration.addProperty("configuration.test.map", "default");
+
+		assertSame(ConfigurationKeyIndex.getIndex(configuration), ConfigurationKeyIndex.getIndex(configuration));
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package configuration.metadata;
+
+import static br.gov.frameworkdemoiselle.configuration.ConfigType.PROPERTIES;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.internal.bootstrap.ConfigurationBootstrap;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationLoader;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationMetadata;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class ConfigurationMetadataTest {
+
+	private static final String PATH = "src/test/resources/configuration/metadata";
+
+	@Inject
+	private MetadataConfig config;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		JavaArchive deployment = Tests.createDeployment(ConfigurationMetadataTest.class);
+		deployment.addAsResource(Tests.createFileAsset(PATH + "/demoiselle.properties"), "demoiselle.properties");
+		return deployment;
+	}
+
+	@Test
+	public void metadataBuiltOncePerClass() {
+		ConfigurationMetadata first = load(new MetadataConfig());
+		ConfigurationMetadata second = load(new MetadataConfig());
+
+		assertNotNull(first);
+		assertSame(first, second);
+	}
+
+	@Test
+	public void keysResolvedFromFieldsAndPrefix() throws Exception {
+		ConfigurationMetadata metadata = load(new MetadataConfig());
+		Map<Field, String> keys = metadata.getKeys();
+
+		assertEquals(PROPERTIES, metadata.getType());
+		assertEquals("demoiselle.properties", metadata.getResource());
+		assertEquals("metadata.", metadata.getPrefix());
+
+		assertEquals(3, keys.size());
+		assertEquals("custom.key", keys.get(MetadataConfig.class.getDeclaredField("named")));
+		assertEquals("plain", keys.get(MetadataConfig.class.getDeclaredField("plain")));
+		assertEquals("inherited", keys.get(AbstractMetadataConfig.class.getDeclaredField("inherited")));
+
+		Field ignored = MetadataConfig.class.getDeclaredField("ignored");
+		assertFalse(keys.containsKey(ignored));
+		assertTrue(metadata.getFields().contains(ignored));
+		assertFalse(metadata.getFields().contains(MetadataConfig.class.getDeclaredField("constant")));
+	}
+
+	@Test
+	public void valuesLoadedWithResolvedKeys() {
+		assertEquals("named value", config.getNamed());
+		assertEquals("plain value", config.getPlain());
+		assertEquals("inherited value", config.getInherited());
+		assertEquals("ignored", config.getIgnored());
+	}
+
+	private static ConfigurationMetadata load(MetadataConfig instance) {
+		Beans.getReference(ConfigurationLoader.class).load(instance, false);
+		return Beans.getReference(ConfigurationBootstrap.class).getMetadataCache().get(MetadataConfig.class);
+	}
+}
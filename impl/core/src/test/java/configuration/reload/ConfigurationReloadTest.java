@@ -0,0 +1,145 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package configuration.reload;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.configuration.ConfigurationChangeEvent;
+
+@RunWith(Arquillian.class)
+public class ConfigurationReloadTest {
+
+	private static final String PATH = "src/test/resources/configuration/reload";
+
+	private static final String RESOURCE = "configuration/reload/reload.properties";
+
+	private static final long TIMEOUT = 10000;
+
+	@Inject
+	private ReloadConfig config;
+
+	@Inject
+	private ReloadObserver observer;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		JavaArchive deployment = Tests.createDeployment(ConfigurationReloadTest.class);
+		deployment.addAsResource(Tests.createFileAsset(PATH + "/demoiselle.properties"), "demoiselle.properties");
+		return deployment;
+	}
+
+	@Test
+	public void valuesSwappedAfterFileChanges() throws Exception {
+		assertEquals("demoiselle", config.getName());
+		assertEquals(30, config.getTimeout());
+		assertEquals("original", config.getDescription());
+
+		//O recurso não faz parte do pacote implantado, assim é lido do sistema de arquivos e pode ser observado.
+		File file = new File(Thread.currentThread().getContextClassLoader().getResource(RESOURCE).toURI());
+		byte[] original = read(file);
+		long lastModified = file.lastModified();
+
+		try {
+			String changed = new String(original, "ISO-8859-1").replace("reload.name=demoiselle", "reload.name=reloaded")
+					.replace("reload.description=original", "reload.description=changed");
+			write(file, changed.getBytes("ISO-8859-1"), lastModified + 2000);
+
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (!"reloaded".equals(config.getName()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(100);
+			}
+
+			assertEquals("reloaded", config.getName());
+			assertEquals(30, config.getTimeout());
+			assertEquals("changed", config.getDescription());
+
+			ConfigurationChangeEvent event = observer.getEvents().isEmpty() ? null : observer.getEvents().get(0);
+			assertNotNull(event);
+			assertEquals(ReloadConfig.class, event.getType());
+			assertEquals(2, event.getChangedKeys().size());
+
+		} finally {
+			write(file, original, lastModified);
+		}
+	}
+
+	private static byte[] read(File file) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		InputStream in = new FileInputStream(file);
+
+		try {
+			byte[] buffer = new byte[4096];
+			for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+				content.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+
+		return content.toByteArray();
+	}
+
+	private static void write(File file, byte[] content, long lastModified) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+
+		file.setLastModified(lastModified);
+	}
+}
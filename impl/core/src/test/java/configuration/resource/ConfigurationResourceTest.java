@@ -37,6 +37,15 @@
 package configuration.resource;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 import javax.inject.Inject;
 
@@ -47,6 +56,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import test.Tests;
+import br.gov.frameworkdemoiselle.configuration.ConfigType;
+import br.gov.frameworkdemoiselle.configuration.ConfigurationException;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationResourceCache;
+import br.gov.frameworkdemoiselle.util.Beans;
 
 @RunWith(Arquillian.class)
 public class ConfigurationResourceTest {
@@ -84,6 +97,7 @@ public class ConfigurationResourceTest {
 		deployment.addAsResource(Tests.createFileAsset(PATH + "/demoiselle.xml"), "demoiselle.xml");
 		deployment.addAsResource(Tests.createFileAsset(PATH + "/resource.properties"), "resource.properties");
 		deployment.addAsResource(Tests.createFileAsset(PATH + "/resource.xml"), "resource.xml");
+		deployment.addAsResource(Tests.createFileAsset(PATH + "/malformed.xml"), "malformed.xml");
 		return deployment;
 	}
 
@@ -118,4 +132,72 @@ public class ConfigurationResourceTest {
 		assertEquals(expected, propWithoutFile.getStringWithComma());
 		assertEquals(expected, xmlWithoutFile.getStringWithComma());
 	}
+
+	@Test
+	public void parseEachResourceOnce() {
+		propDefault.getStringWithComma();
+		propNamedDefault.getStringWithComma();
+
+		ConfigurationResourceCache cache = Beans.getReference(ConfigurationResourceCache.class);
+		org.apache.commons.configuration.Configuration first = cache.getConfiguration("demoiselle.properties",
+				ConfigType.PROPERTIES);
+		org.apache.commons.configuration.Configuration second = cache.getConfiguration("demoiselle.properties",
+				ConfigType.PROPERTIES);
+
+		assertNotNull(first);
+		assertSame(first, second);
+		assertNull(cache.getConfiguration("nonexistent.properties", ConfigType.PROPERTIES));
+	}
+
+	@Test
+	public void parseFailureNotCached() {
+		ConfigurationResourceCache cache = Beans.getReference(ConfigurationResourceCache.class);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				cache.getConfiguration("malformed.xml", ConfigType.XML);
+				fail();
+			} catch (ConfigurationException cause) {
+				// A falha não fica em cache: cada pedido tenta ler o recurso de novo.
+				assertNotNull(cause.getCause());
+			}
+		}
+	}
+
+	@Test
+	public void cachedResourceIsReadOnly() {
+		ConfigurationResourceCache cache = Beans.getReference(ConfigurationResourceCache.class);
+		org.apache.commons.configuration.Configuration config = cache.getConfiguration("resource.properties",
+				ConfigType.PROPERTIES);
+
+		try {
+			config.setProperty("string", "changed");
+			fail();
+		} catch (UnsupportedOperationException cause) {
+			// Os recursos em cache são compartilhados e não podem ser alterados.
+		}
+
+		try {
+			config.clearProperty("string");
+			fail();
+		} catch (UnsupportedOperationException cause) {
+			// Os recursos em cache são compartilhados e não podem ser alterados.
+		}
+
+		assertEquals("demoiselle", config.getString("string"));
+	}
+
+	@Test
+	public void cacheUsableAfterDeserialization() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new ConfigurationResourceCache());
+		out.close();
+
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		ConfigurationResourceCache cache = (ConfigurationResourceCache) in.readObject();
+		in.close();
+
+		assertNotNull(cache.getConfiguration("resource.properties", ConfigType.PROPERTIES));
+	}
 }
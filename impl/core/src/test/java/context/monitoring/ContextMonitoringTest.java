@@ -0,0 +1,170 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.monitoring;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.internal.context.AbstractThreadLocalContext;
+import br.gov.frameworkdemoiselle.internal.context.ContextMetrics;
+import br.gov.frameworkdemoiselle.internal.implementation.ManagedType;
+import br.gov.frameworkdemoiselle.internal.implementation.Management;
+import br.gov.frameworkdemoiselle.internal.management.ContextMonitor;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class ContextMonitoringTest {
+
+	private static final String PATH = "src/test/resources/context/monitoring";
+
+	@Inject
+	private Management management;
+
+	@Inject
+	private MonitoredConfig config;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		JavaArchive deployment = Tests.createDeployment(ContextMonitoringTest.class);
+		deployment.addAsResource(Tests.createFileAsset(PATH + "/demoiselle.properties"), "demoiselle.properties");
+		return deployment;
+	}
+
+	@Test
+	public void configurationLoadedWithMonitoring() {
+		// Classes de configuração ficam no StaticContextImpl, que consulta ContextConfig, também uma delas.
+		assertEquals("demoiselle", config.getName());
+	}
+
+	@Test
+	public void instancesCountedUntilDeactivation() {
+		AbstractThreadLocalContext context = (AbstractThreadLocalContext) Beans.getReference(RequestContext.class);
+		ContextMetrics metrics = context.getMetrics();
+		long created = metrics.getCreatedInstances();
+		long destroyed = metrics.getDestroyedInstances();
+
+		context.activate();
+		try {
+			Beans.getReference(MonitoredBean.class).setData("monitored");
+
+			assertEquals(created + 1, metrics.getCreatedInstances());
+			assertEquals(1, metrics.getActiveStores());
+			assertEquals(1, metrics.getInstances());
+			assertNotNull(context.getBoundStore());
+
+		} finally {
+			context.deactivate();
+		}
+
+		assertEquals(destroyed + 1, metrics.getDestroyedInstances());
+		assertEquals(0, metrics.getActiveStores());
+		assertNull(context.getBoundStore());
+	}
+
+	@Test
+	public void leakedStoresExposedAsManagedType() throws Exception {
+		final RequestContext context = Beans.getReference(RequestContext.class);
+		final CountDownLatch used = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		ManagedType type = getMonitorType();
+		assertNotNull(type);
+
+		// Simula uma thread de um pool que usou o contexto e nunca o desativou.
+		Thread pooled = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				Beans.getReference(MonitoredBean.class).setData("leaked");
+				used.countDown();
+
+				try {
+					release.await();
+				} catch (InterruptedException cause) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "pooled-thread");
+
+		context.activate();
+		try {
+			pooled.start();
+			assertTrue(used.await(10, TimeUnit.SECONDS));
+
+		} finally {
+			context.deactivate();
+		}
+
+		try {
+			Thread.sleep(10);
+
+			assertTrue((Integer) management.getProperty(type, "leakedStores") > 0);
+
+			String leaked = (String) management.invoke(type, "listLeakedStores", new Object[0]);
+			assertTrue(leaked.contains("thread=pooled-thread"));
+
+		} finally {
+			release.countDown();
+			pooled.join();
+		}
+	}
+
+	private ManagedType getMonitorType() {
+		for (ManagedType type : management.getManagedTypes()) {
+			if (type.getType() == ContextMonitor.class) {
+				return type;
+			}
+		}
+
+		return null;
+	}
+}
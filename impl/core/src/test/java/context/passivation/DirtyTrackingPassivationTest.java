@@ -0,0 +1,208 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.passivation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.internal.bootstrap.CustomContextBootstrap;
+import br.gov.frameworkdemoiselle.internal.context.BeanStore;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class DirtyTrackingPassivationTest {
+
+	/*
+	 * Contextual que não implementa PassivationCapable, ao contrário dos beans gerenciados pelo Weld.
+	 */
+	private static final Contextual<Object> NOT_PASSIVATION_CAPABLE = new Contextual<Object>() {
+
+		@Override
+		public Object create(CreationalContext<Object> creationalContext) {
+			return "not passivation capable";
+		}
+
+		@Override
+		public void destroy(Object instance, CreationalContext<Object> creationalContext) {
+		}
+	};
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		return Tests.createDeployment(DirtyTrackingPassivationTest.class);
+	}
+
+	@Test
+	public void changedOnlyWhenAccessedSinceSerialization() throws Exception {
+		BeanStore store = new BeanStore(true);
+		int slot = putNewInstance(store, PassivatedBean.class, new PassivatedBean());
+		assertTrue(store.isChanged());
+
+		BeanStore copy = roundTrip(store);
+		assertFalse(store.isChanged());
+		assertFalse(copy.isChanged());
+
+		((PassivatedBean) store.getInstance(slot)).setData("changed");
+		assertTrue(store.isChanged());
+		assertEquals("changed", read(roundTrip(store)));
+		assertFalse(store.isChanged());
+	}
+
+	@Test
+	public void defaultStoreAlwaysChanged() throws Exception {
+		BeanStore store = new BeanStore();
+		int slot = putNewInstance(store, PassivatedBean.class, new PassivatedBean());
+		((PassivatedBean) store.getInstance(slot)).setData("first");
+
+		BeanStore copy = roundTrip(store);
+		assertTrue(store.isChanged());
+		assertTrue(copy.isChanged());
+		assertFalse(copy.isDirtyTracking());
+		assertEquals("first", read(copy));
+	}
+
+	@Test
+	public void restoredStoreKeepsTracking() throws Exception {
+		BeanStore store = new BeanStore(true);
+		int slot = putNewInstance(store, PassivatedBean.class, new PassivatedBean());
+		((PassivatedBean) store.getInstance(slot)).setData("restored");
+
+		BeanStore copy = roundTrip(roundTrip(store));
+
+		assertTrue(copy.isDirtyTracking());
+		assertEquals("restored", read(copy));
+	}
+
+	@Test
+	public void sharedObjectsKeepIdentity() throws Exception {
+		ArrayList<String> shared = new ArrayList<String>();
+		PassivatedBean first = new PassivatedBean();
+		SiblingPassivatedBean second = new SiblingPassivatedBean();
+		first.setAttachment(shared);
+		second.setAttachment(shared);
+
+		BeanStore store = new BeanStore(true);
+		int firstSlot = putNewInstance(store, PassivatedBean.class, first);
+		int secondSlot = putNewInstance(store, SiblingPassivatedBean.class, second);
+
+		BeanStore copy = roundTrip(store);
+		Object firstAttachment = ((PassivatedBean) copy.getInstance(firstSlot)).getAttachment();
+		Object secondAttachment = ((SiblingPassivatedBean) copy.getInstance(secondSlot)).getAttachment();
+
+		assertNotSame(shared, firstAttachment);
+		assertSame(firstAttachment, secondAttachment);
+	}
+
+	@Test
+	public void nonPassivationCapableKeptWithoutTracking() throws Exception {
+		BeanStore store = new BeanStore();
+		int slot = getSlot(NOT_PASSIVATION_CAPABLE);
+		store.put(slot, "not passivation capable", null);
+
+		BeanStore copy = roundTrip(store);
+		assertEquals("not passivation capable", copy.getInstance(slot));
+	}
+
+	@Test
+	public void nonPassivationCapableLeftOutWithTracking() throws Exception {
+		BeanStore store = new BeanStore(true);
+		int slot = getSlot(NOT_PASSIVATION_CAPABLE);
+		store.put(slot, "not passivation capable", null);
+		putNewInstance(store, PassivatedBean.class, new PassivatedBean());
+
+		BeanStore copy = roundTrip(store);
+		assertFalse(copy.contains(slot));
+		assertEquals(1, copy.size());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int putNewInstance(BeanStore store, Class<?> type, Object instance) {
+		BeanManager beanManager = Beans.getBeanManager();
+		Bean bean = beanManager.resolve(beanManager.getBeans(type));
+		CreationalContext creationalContext = beanManager.createCreationalContext(bean);
+
+		int slot = getSlot(bean);
+		store.put(slot, instance, creationalContext);
+		return slot;
+	}
+
+	private static int getSlot(Contextual<?> contextual) {
+		return Beans.getReference(CustomContextBootstrap.class).getContextualStore().getSlot(contextual);
+	}
+
+	private static String read(BeanStore store) {
+		BeanManager beanManager = Beans.getBeanManager();
+		Bean<?> bean = beanManager.resolve(beanManager.getBeans(PassivatedBean.class));
+		return ((PassivatedBean) store.getInstance(getSlot(bean))).getData();
+	}
+
+	private static BeanStore roundTrip(BeanStore store) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(buffer);
+		out.writeObject(store);
+		out.close();
+
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+		try {
+			return (BeanStore) in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
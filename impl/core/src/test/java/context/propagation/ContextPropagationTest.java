@@ -0,0 +1,121 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.propagation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.context.ContextPropagatingExecutorService;
+import br.gov.frameworkdemoiselle.context.ContextPropagatingExecutorService.Mode;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class ContextPropagationTest {
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		return Tests.createDeployment(ContextPropagationTest.class);
+	}
+
+	@Test
+	public void sharedRequestContext() throws Exception {
+		RequestContext context = Beans.getReference(RequestContext.class);
+		context.activate();
+
+		ExecutorService executor = new ContextPropagatingExecutorService(Executors.newSingleThreadExecutor());
+
+		try {
+			Beans.getReference(RequestBean.class).setData("shared");
+
+			String data = executor.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+					return Beans.getReference(RequestBean.class).getData();
+				}
+			}).get();
+
+			assertEquals("shared", data);
+
+		} finally {
+			executor.shutdown();
+			context.deactivate();
+		}
+	}
+
+	@Test
+	public void childRequestContext() throws Exception {
+		RequestContext context = Beans.getReference(RequestContext.class);
+		context.activate();
+
+		ExecutorService executor = new ContextPropagatingExecutorService(Executors.newSingleThreadExecutor(),
+				Mode.CHILD_REQUEST);
+
+		try {
+			Beans.getReference(RequestBean.class).setData("parent");
+
+			String data = executor.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+					RequestBean bean = Beans.getReference(RequestBean.class);
+					String data = bean.getData();
+					bean.setData("child");
+					return data;
+				}
+			}).get();
+
+			assertEquals("default", data);
+			assertEquals("parent", Beans.getReference(RequestBean.class).getData());
+
+		} finally {
+			executor.shutdown();
+			context.deactivate();
+		}
+	}
+}
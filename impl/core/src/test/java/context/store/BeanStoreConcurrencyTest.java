@@ -0,0 +1,129 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+import org.junit.Test;
+
+import br.gov.frameworkdemoiselle.internal.context.BeanStore;
+
+public class BeanStoreConcurrencyTest {
+
+	private static final int THREADS = 16;
+
+	private static final int ROUNDS = 200;
+
+	@Test
+	public void concurrentFirstAccessCreatesOneInstance() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		try {
+			for (int round = 0; round < ROUNDS; round++) {
+				final BeanStore store = new BeanStore();
+				final CountingContextual contextual = new CountingContextual();
+				final CountDownLatch start = new CountDownLatch(1);
+				final int slot = round % 8;
+
+				List<Future<Object>> results = new ArrayList<Future<Object>>();
+				for (int i = 0; i < THREADS; i++) {
+					results.add(executor.submit(new Callable<Object>() {
+
+						@Override
+						public Object call() throws Exception {
+							start.await();
+							return store.getOrCreate(slot, contextual, new DummyCreationalContext());
+						}
+					}));
+				}
+
+				start.countDown();
+
+				Object first = results.get(0).get();
+				for (Future<Object> result : results) {
+					assertSame(first, result.get());
+				}
+
+				assertEquals(1, contextual.created.get());
+				assertSame(first, store.getInstance(slot));
+			}
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static class CountingContextual implements Contextual<Object> {
+
+		private final AtomicInteger created = new AtomicInteger();
+
+		@Override
+		public Object create(CreationalContext<Object> creationalContext) {
+			created.incrementAndGet();
+			Thread.yield();
+			return new Object();
+		}
+
+		@Override
+		public void destroy(Object instance, CreationalContext<Object> creationalContext) {
+		}
+	}
+
+	private static class DummyCreationalContext implements CreationalContext<Object> {
+
+		@Override
+		public void push(Object incompleteInstance) {
+		}
+
+		@Override
+		public void release() {
+		}
+	}
+}
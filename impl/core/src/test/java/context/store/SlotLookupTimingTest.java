@@ -0,0 +1,162 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.PassivationCapable;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.gov.frameworkdemoiselle.internal.context.BeanStore;
+import br.gov.frameworkdemoiselle.internal.context.ContextualStore;
+
+/**
+ * Looks instances up through the slot of their contextuals and through the maps keyed by passivation ID used before
+ * slots existed, which resolved the ID of the contextual and then the instance. Both must find the same instances, and
+ * the elapsed time of each is logged.
+ */
+public class SlotLookupTimingTest {
+
+	private static final int CONTEXTUALS = 64;
+
+	private static final int ROUNDS = 20000;
+
+	private final Logger logger = LoggerFactory.getLogger(SlotLookupTimingTest.class);
+
+	@Test
+	public void slotLookupFindsSameInstancesAsMapLookup() {
+		ContextualStore contextualStore = new ContextualStore();
+		BeanStore store = new BeanStore();
+
+		ConcurrentMap<Object, String> contextualToId = new ConcurrentHashMap<Object, String>();
+		ConcurrentMap<String, Object> idToInstance = new ConcurrentHashMap<String, Object>();
+
+		IdentifiedContextual[] contextuals = new IdentifiedContextual[CONTEXTUALS];
+		for (int i = 0; i < CONTEXTUALS; i++) {
+			contextuals[i] = new IdentifiedContextual("WELD%ManagedBean%timing%context.store.Bean" + i);
+			Object instance = new Object();
+
+			store.put(contextualStore.getSlot(contextuals[i]), instance, null);
+			contextualToId.put(contextuals[i], contextuals[i].getId());
+			idToInstance.put(contextuals[i].getId(), instance);
+		}
+
+		for (IdentifiedContextual contextual : contextuals) {
+			assertSame(idToInstance.get(contextualToId.get(contextual)),
+					store.getInstance(contextualStore.getSlot(contextual)));
+		}
+
+		// Aquece os dois caminhos antes de medir.
+		lookupBySlot(contextualStore, store, contextuals);
+		lookupByMap(contextualToId, idToInstance, contextuals);
+
+		long begin = System.nanoTime();
+		int found = lookupBySlot(contextualStore, store, contextuals);
+		long slotTime = System.nanoTime() - begin;
+
+		begin = System.nanoTime();
+		int baselineFound = lookupByMap(contextualToId, idToInstance, contextuals);
+		long mapTime = System.nanoTime() - begin;
+
+		assertEquals(CONTEXTUALS * ROUNDS, found);
+		assertEquals(found, baselineFound);
+
+		logger.info("Instance lookups: slot=" + slotTime / 1000000 + "ms, map baseline=" + mapTime / 1000000 + "ms");
+	}
+
+	private static int lookupBySlot(ContextualStore contextualStore, BeanStore store,
+			IdentifiedContextual[] contextuals) {
+		int found = 0;
+
+		for (int round = 0; round < ROUNDS; round++) {
+			for (IdentifiedContextual contextual : contextuals) {
+				if (store.getInstance(contextualStore.getSlot(contextual)) != null) {
+					found++;
+				}
+			}
+		}
+
+		return found;
+	}
+
+	private static int lookupByMap(ConcurrentMap<Object, String> contextualToId,
+			ConcurrentMap<String, Object> idToInstance, IdentifiedContextual[] contextuals) {
+		int found = 0;
+
+		for (int round = 0; round < ROUNDS; round++) {
+			for (IdentifiedContextual contextual : contextuals) {
+				if (idToInstance.get(contextualToId.get(contextual)) != null) {
+					found++;
+				}
+			}
+		}
+
+		return found;
+	}
+
+	private static class IdentifiedContextual implements Contextual<Object>, PassivationCapable {
+
+		private final String id;
+
+		private IdentifiedContextual(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public Object create(CreationalContext<Object> creationalContext) {
+			return new Object();
+		}
+
+		@Override
+		public void destroy(Object instance, CreationalContext<Object> creationalContext) {
+		}
+	}
+}
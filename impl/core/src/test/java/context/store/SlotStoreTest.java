@@ -0,0 +1,130 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+import org.junit.Test;
+
+import br.gov.frameworkdemoiselle.internal.context.BeanStore;
+import br.gov.frameworkdemoiselle.internal.context.ContextualStore;
+
+public class SlotStoreTest {
+
+	@Test
+	public void slotsAreStableAndDistinct() {
+		ContextualStore contextualStore = new ContextualStore();
+		DummyContextual first = new DummyContextual();
+		DummyContextual second = new DummyContextual();
+
+		int firstSlot = contextualStore.getSlot(first);
+		int secondSlot = contextualStore.getSlot(second);
+
+		assertFalse(firstSlot == secondSlot);
+		assertEquals(firstSlot, contextualStore.getSlot(first));
+		assertSame(second, contextualStore.getContextual(secondSlot));
+		assertNull(contextualStore.getContextual(secondSlot + 1));
+		assertNull(contextualStore.getPassivationId(firstSlot));
+		assertEquals(2, contextualStore.size());
+	}
+
+	@Test
+	public void slotsGrowBeyondInitialCapacity() {
+		ContextualStore contextualStore = new ContextualStore();
+		DummyContextual[] contextuals = new DummyContextual[1000];
+
+		for (int i = 0; i < contextuals.length; i++) {
+			contextuals[i] = new DummyContextual();
+			assertEquals(i, contextualStore.getSlot(contextuals[i]));
+		}
+
+		for (int i = 0; i < contextuals.length; i++) {
+			assertSame(contextuals[i], contextualStore.getContextual(i));
+		}
+
+		assertEquals(contextuals.length, contextualStore.size());
+		assertNull(contextualStore.getContextual(contextuals.length));
+
+		contextualStore.clear();
+		assertEquals(0, contextualStore.size());
+		assertNull(contextualStore.getContextual(0));
+	}
+
+	@Test
+	public void storeGrowsAndKeepsFirstInstance() {
+		BeanStore store = new BeanStore();
+
+		store.put(5, "first", null);
+		store.put(5, "second", null);
+		store.put(0, "zero", null);
+
+		assertEquals("first", store.getInstance(5));
+		assertEquals("zero", store.getInstance(0));
+		assertNull(store.getInstance(3));
+		assertNull(store.getInstance(100));
+
+		Iterator<Integer> slots = store.iterator();
+		assertEquals(Integer.valueOf(0), slots.next());
+		assertEquals(Integer.valueOf(5), slots.next());
+		assertFalse(slots.hasNext());
+
+		store.clear();
+		assertFalse(store.contains(5));
+		assertTrue(!store.iterator().hasNext());
+	}
+
+	private static class DummyContextual implements Contextual<Object> {
+
+		@Override
+		public Object create(CreationalContext<Object> creationalContext) {
+			return new Object();
+		}
+
+		@Override
+		public void destroy(Object instance, CreationalContext<Object> creationalContext) {
+		}
+	}
+}
@@ -79,4 +79,23 @@ public class ValidationTest {
 
 	}
 
+	/**
+	 * Tests if an invalid value is refused after a valid one was accepted, keeping the valid value
+	 */
+	@Test
+	public void invalidValueKeepsPreviousValue() {
+		ManagedClassStore store = Beans.getReference(ManagedClassStore.class);
+		store.setProperty(DummyManagedClass.class, "id", new Integer(2));
+
+		try {
+			store.setProperty(DummyManagedClass.class, "id", (Integer) null);
+
+			Assert.fail();
+		} catch (ConstraintViolationException ce) {
+			Assert.assertEquals(1, ce.getConstraintViolations().size());
+		}
+
+		Assert.assertEquals(new Integer(2), store.getProperty(DummyManagedClass.class, "id"));
+	}
+
 }
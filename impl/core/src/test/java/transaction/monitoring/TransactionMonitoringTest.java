@@ -0,0 +1,185 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package transaction.monitoring;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.internal.implementation.ManagedType;
+import br.gov.frameworkdemoiselle.internal.implementation.Management;
+import br.gov.frameworkdemoiselle.internal.implementation.TransactionMetrics;
+import br.gov.frameworkdemoiselle.internal.implementation.TransactionMetrics.MethodMetrics;
+import br.gov.frameworkdemoiselle.internal.management.TransactionMonitor;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class TransactionMonitoringTest {
+
+	private static final String PATH = "src/test/resources/transaction/monitoring";
+
+	@Inject
+	private MonitoredManager manager;
+
+	@Inject
+	private TransactionMetrics metrics;
+
+	@Inject
+	private Management management;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		JavaArchive deployment = Tests.createDeployment(TransactionMonitoringTest.class);
+		deployment.addAsResource(Tests.createFileAsset(PATH + "/demoiselle.properties"), "demoiselle.properties");
+		return deployment;
+	}
+
+	@Before
+	public void activeContext() {
+		metrics.reset();
+
+		RequestContext ctx = Beans.getReference(RequestContext.class);
+		ctx.activate();
+	}
+
+	@After
+	public void deactiveContext() {
+		RequestContext ctx = Beans.getReference(RequestContext.class);
+		ctx.deactivate();
+	}
+
+	@Test
+	public void commitRecordedForOwnerMethod() {
+		manager.insert();
+		manager.insert();
+
+		MethodMetrics method = getMethod("insert");
+		assertEquals(2, method.getCount());
+		assertEquals(2, method.getCommits());
+		assertEquals(0, method.getRollbacks());
+		assertEquals(1, method.getMaxDepth());
+	}
+
+	@Test
+	public void nestedMethodRecordedAsDepth() {
+		manager.insertThenUpdate();
+
+		assertEquals(1, metrics.getMethods().size());
+		assertEquals(2, getMethod("insertThenUpdate").getMaxDepth());
+	}
+
+	@Test
+	public void rollbackRecorded() {
+		try {
+			manager.failedInsert();
+			fail();
+
+		} catch (IllegalStateException cause) {
+			MethodMetrics method = getMethod("failedInsert");
+			assertEquals(0, method.getCommits());
+			assertEquals(1, method.getRollbacks());
+		}
+	}
+
+	@Test
+	public void durationRecorded() throws Exception {
+		manager.slowInsert();
+
+		MethodMetrics method = getMethod("slowInsert");
+		assertTrue(method.getMaxDuration() >= 20);
+		assertTrue(method.getPercentile(99) >= 20);
+		assertTrue(method.getPercentile(99) <= method.getMaxDuration());
+	}
+
+	@Test
+	public void figuresExposedAsManagedType() {
+		manager.insert();
+
+		try {
+			manager.failedInsert();
+			fail();
+
+		} catch (IllegalStateException cause) {
+			// Transação desfeita.
+		}
+
+		ManagedType type = getMonitorType();
+		assertNotNull(type);
+
+		assertEquals(2L, management.getProperty(type, "transactions"));
+		assertEquals(1L, management.getProperty(type, "commits"));
+		assertEquals(1L, management.getProperty(type, "rollbacks"));
+
+		String described = (String) management.invoke(type, "describeTransactions", new Object[0]);
+		assertTrue(described.contains("insert()"));
+		assertTrue(described.contains("failedInsert()"));
+	}
+
+	private MethodMetrics getMethod(String name) {
+		for (MethodMetrics method : metrics.getMethods()) {
+			if (method.getMethod().contains("." + name + "(")) {
+				return method;
+			}
+		}
+
+		fail("No figures for " + name);
+		return null;
+	}
+
+	private ManagedType getMonitorType() {
+		for (ManagedType type : management.getManagedTypes()) {
+			if (type.getType() == TransactionMonitor.class) {
+				return type;
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package transaction.propagation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.gov.frameworkdemoiselle.transaction.SuspendableTransaction;
+
+public class SuspendableStrategy implements SuspendableTransaction {
+
+	private static final long serialVersionUID = 1L;
+
+	private static int lastId = 0;
+
+	private static int current = 0;
+
+	private static boolean markedRollback = false;
+
+	private static List<String> events = new ArrayList<String>();
+
+	@Override
+	public boolean isActive() {
+		return current != 0;
+	}
+
+	@Override
+	public boolean isMarkedRollback() {
+		return markedRollback;
+	}
+
+	@Override
+	public void begin() {
+		current = ++lastId;
+		events.add("begin " + current);
+	}
+
+	@Override
+	public void commit() {
+		events.add("commit " + current);
+		current = 0;
+	}
+
+	@Override
+	public void rollback() {
+		events.add("rollback " + current);
+		current = 0;
+		markedRollback = false;
+	}
+
+	@Override
+	public void setRollbackOnly() {
+		markedRollback = true;
+	}
+
+	@Override
+	public Object suspend() {
+		events.add("suspend " + current);
+
+		int[] suspended = { current, markedRollback ? 1 : 0 };
+		current = 0;
+		markedRollback = false;
+
+		return suspended;
+	}
+
+	@Override
+	public void resume(Object suspended) {
+		int[] state = (int[]) suspended;
+		current = state[0];
+		markedRollback = state[1] == 1;
+
+		events.add("resume " + current);
+	}
+
+	public static int getCurrent() {
+		return current;
+	}
+
+	public static List<String> getEvents() {
+		return events;
+	}
+
+	public static void reset() {
+		lastId = 0;
+		current = 0;
+		markedRollback = false;
+		events = new ArrayList<String>();
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package transaction.propagation;
+
+import static java.util.Arrays.asList;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.transaction.TransactionException;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class TransactionPropagationTest {
+
+	@Inject
+	private OuterManager outer;
+
+	@Inject
+	private InnerManager inner;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		return Tests.createDeployment(TransactionPropagationTest.class);
+	}
+
+	@Before
+	public void activeContext() {
+		SuspendableStrategy.reset();
+
+		RequestContext ctx = Beans.getReference(RequestContext.class);
+		ctx.activate();
+	}
+
+	@After
+	public void deactiveContext() {
+		RequestContext ctx = Beans.getReference(RequestContext.class);
+		ctx.deactivate();
+	}
+
+	@Test
+	public void requiresNewWithoutTransaction() {
+		inner.requiresNew();
+
+		assertEquals(1, inner.getSeenTransaction());
+		assertEquals(asList("begin 1", "commit 1"), SuspendableStrategy.getEvents());
+	}
+
+	@Test
+	public void requiresNewSuspendsTransaction() {
+		outer.callRequiresNew();
+
+		assertEquals(1, outer.getSeenTransaction());
+		assertEquals(2, outer.getInner().getSeenTransaction());
+		assertEquals(asList("begin 1", "suspend 1", "begin 2", "commit 2", "resume 1", "commit 1"),
+				SuspendableStrategy.getEvents());
+	}
+
+	@Test
+	public void requiresNewRollbackKeepsSuspendedTransaction() {
+		outer.callRequiresNewWithException();
+
+		assertEquals(asList("begin 1", "suspend 1", "begin 2", "rollback 2", "resume 1", "commit 1"),
+				SuspendableStrategy.getEvents());
+	}
+
+	@Test
+	public void notSupportedSuspendsTransaction() {
+		outer.callNotSupported();
+
+		assertEquals(0, outer.getInner().getSeenTransaction());
+		assertEquals(asList("begin 1", "suspend 1", "resume 1", "commit 1"), SuspendableStrategy.getEvents());
+	}
+
+	@Test
+	public void notSupportedWithoutTransaction() {
+		inner.notSupported();
+
+		assertEquals(0, inner.getSeenTransaction());
+		assertTrue(SuspendableStrategy.getEvents().isEmpty());
+	}
+
+	@Test
+	public void supportsJoinsTransaction() {
+		outer.callSupports();
+
+		assertEquals(1, outer.getInner().getSeenTransaction());
+		assertEquals(asList("begin 1", "commit 1"), SuspendableStrategy.getEvents());
+	}
+
+	@Test
+	public void supportsWithoutTransaction() {
+		inner.supports();
+
+		assertEquals(0, inner.getSeenTransaction());
+		assertTrue(SuspendableStrategy.getEvents().isEmpty());
+	}
+
+	@Test
+	public void mandatoryJoinsTransaction() {
+		outer.callMandatory();
+
+		assertEquals(1, outer.getInner().getSeenTransaction());
+		assertEquals(asList("begin 1", "commit 1"), SuspendableStrategy.getEvents());
+	}
+
+	@Test
+	public void mandatoryWithoutTransaction() {
+		try {
+			inner.mandatory();
+			fail();
+
+		} catch (TransactionException cause) {
+			assertTrue(SuspendableStrategy.getEvents().isEmpty());
+		}
+	}
+}
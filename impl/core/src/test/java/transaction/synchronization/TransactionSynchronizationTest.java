@@ -0,0 +1,127 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package transaction.synchronization;
+
+import static java.util.Arrays.asList;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.fail;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import test.Tests;
+import br.gov.frameworkdemoiselle.context.RequestContext;
+import br.gov.frameworkdemoiselle.transaction.SynchronizingTransactionContext;
+import br.gov.frameworkdemoiselle.transaction.TransactionException;
+import br.gov.frameworkdemoiselle.util.Beans;
+
+@RunWith(Arquillian.class)
+public class TransactionSynchronizationTest {
+
+	@Inject
+	private SynchronizedManager manager;
+
+	@Inject
+	private SynchronizingTransactionContext transactionContext;
+
+	@Deployment
+	public static JavaArchive createDeployment() {
+		return Tests.createDeployment(TransactionSynchronizationTest.class);
+	}
+
+	@Before
+	public void activeContext() {
+		SynchronizedStrategy.reset();
+
+		RequestContext ctx = Beans.getReference(RequestContext.class);
+		ctx.activate();
+	}
+
+	@After
+	public void deactiveContext() {
+		RequestContext ctx = Beans.getReference(RequestContext.class);
+		ctx.deactivate();
+	}
+
+	@Test
+	public void calledAroundCommit() {
+		manager.register();
+
+		assertEquals(asList("registered", "before", "commit", "after true"), SynchronizedStrategy.getEvents());
+	}
+
+	@Test
+	public void calledAfterRollback() {
+		try {
+			manager.registerThenFail();
+			fail();
+
+		} catch (UnsupportedOperationException cause) {
+			assertEquals(asList("rollback", "after false"), SynchronizedStrategy.getEvents());
+		}
+	}
+
+	@Test
+	public void beforeCompletionFailureRollsBack() {
+		try {
+			manager.registerFailingSynchronization();
+			fail();
+
+		} catch (IllegalStateException cause) {
+			assertEquals(asList("before", "rollback", "after false"), SynchronizedStrategy.getEvents());
+		}
+	}
+
+	@Test
+	public void calledWhenOuterTransactionCompletes() {
+		manager.registerInNestedMethod();
+
+		assertEquals(asList("inner returned", "before", "commit", "after true"), SynchronizedStrategy.getEvents());
+	}
+
+	@Test(expected = TransactionException.class)
+	public void registerWithoutTransaction() {
+		transactionContext.registerSynchronization(new RecordingSynchronization(false));
+	}
+}
@@ -39,14 +39,12 @@ package br.gov.frameworkdemoiselle.internal.configuration;
 import static br.gov.frameworkdemoiselle.annotation.Priority.L2_PRIORITY;
 
 import java.lang.reflect.Field;
-import java.util.Iterator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.configuration.Configuration;
 
 import br.gov.frameworkdemoiselle.annotation.Priority;
 import br.gov.frameworkdemoiselle.configuration.ConfigurationValueExtractor;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationKeyIndex;
 
 /**
  * 
@@ -60,29 +58,38 @@ public class JDBCConfigValueExtractor implements ConfigurationValueExtractor {
 	public Object getValue(String prefix, String key, Field field, Configuration configuration) throws Exception {
 		JDBCConfigurationStore value = null;
 
-		String regexp = "^(" + prefix + ")((.+)\\.)?(" + key + ")$";
-		Pattern pattern = Pattern.compile(regexp);
-
-		for (Iterator<String> iter = configuration.getKeys(); iter.hasNext();) {
-			String iterKey = iter.next();
-			Matcher matcher = pattern.matcher(iterKey);
-
-			if (matcher.matches()) {
-				String confKey = matcher.group(1) + (matcher.group(2) == null ? "" : matcher.group(2))
-						+ matcher.group(4);
+		for (String iterKey : ConfigurationKeyIndex.getIndex(configuration).getKeys(prefix)) {
+			String mapKey = getMapKey(prefix, key, iterKey);
 
+			if (mapKey != null) {
 				if (value == null) {
 					value = new JDBCConfigurationStore();
 				}
 
-				String mapKey = matcher.group(3) == null ? "default" : matcher.group(3);
-				value.put(mapKey, configuration.getString(confKey));
+				value.put(mapKey, configuration.getString(iterKey));
 			}
 		}
 
 		return value;
 	}
 
+	/*
+	 * A chave "prefixo.campo" corresponde à configuração "default" e "prefixo.nome.campo" à configuração "nome".
+	 */
+	private static String getMapKey(String prefix, String key, String iterKey) {
+		String mapKey = null;
+		String name = iterKey.substring(prefix.length());
+
+		if (name.equals(key)) {
+			mapKey = "default";
+
+		} else if (name.length() > key.length() + 1 && name.endsWith("." + key)) {
+			mapKey = name.substring(0, name.length() - key.length() - 1);
+		}
+
+		return mapKey;
+	}
+
 	@Override
 	public boolean isSupported(Field field) {
 		return field.getType() == JDBCConfigurationStore.class;
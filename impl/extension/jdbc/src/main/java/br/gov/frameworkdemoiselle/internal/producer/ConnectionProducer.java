@@ -44,7 +44,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.inject.Default;
@@ -94,12 +93,11 @@ public class ConnectionProducer implements Serializable {
 	@Inject
 	private DataSourceProducer producer;
 
-	@PostConstruct
-	public void init() {
-		for (String name : producer.getCache().keySet()) {
-			getConnection(name);
-		}
-	}
+	private boolean transactionActive;
+
+	private boolean transactionReadOnly;
+
+	private boolean transactionRollbackOnly;
 
 	@Default
 	@Produces
@@ -120,6 +118,10 @@ public class ConnectionProducer implements Serializable {
 		return new ConnectionProxy(name);
 	}
 
+	/**
+	 * Returns the connection to the given datasource, creating it on the first call. Connections are only created when
+	 * used, and join the transaction begun by {@link #beginTransaction(boolean)} at that moment.
+	 */
 	public Connection getConnection(String name) {
 		Connection connection = null;
 
@@ -141,9 +143,68 @@ public class ConnectionProducer implements Serializable {
 			}
 		}
 
+		if (transactionActive) {
+			enlist(name, connection);
+		}
+
 		return connection;
 	}
 
+	private void enlist(String name, Connection connection) {
+		Status status = statusCache.get(connection);
+
+		if (!status.isActive()) {
+			if (transactionReadOnly) {
+				try {
+					connection.setReadOnly(true);
+					status.setReadOnly(true);
+
+				} catch (SQLException cause) {
+					//A conexão já pode ter uma transação em andamento, e alguns drivers não permitem mudar o modo
+					//nesse caso. A marcação é só uma otimização, então a conexão participa em modo leitura e escrita.
+					getLogger().debug(getBundle().getString("set-readonly-failed", name));
+				}
+			}
+
+			status.setActive(true);
+		}
+	}
+
+	/**
+	 * From now on, the connections obtained through {@link #getConnection(String)} join a transaction, each one when it
+	 * is first used. No connection is touched by this method.
+	 * 
+	 * @param readOnly
+	 *            <code>true</code> to mark the enlisted connections as read-only.
+	 */
+	public void beginTransaction(boolean readOnly) {
+		transactionActive = true;
+		transactionReadOnly = readOnly;
+		transactionRollbackOnly = false;
+	}
+
+	/**
+	 * Ends the transaction begun by {@link #beginTransaction(boolean)}. The caller must have committed or rolled back
+	 * the enlisted connections.
+	 */
+	public void endTransaction() {
+		transactionActive = false;
+		transactionReadOnly = false;
+		transactionRollbackOnly = false;
+	}
+
+	public boolean isTransactionActive() {
+		return transactionActive;
+	}
+
+	public void setTransactionRollbackOnly() {
+		transactionRollbackOnly = true;
+	}
+
+	public boolean isTransactionMarkedRollback() {
+		return transactionRollbackOnly;
+	}
+
 	private void setTransactionIsolationLevel(Connection connection) {
 		try {
 			connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
@@ -210,6 +271,67 @@ public class ConnectionProducer implements Serializable {
 		cache.clear();
 	}
 
+	/**
+	 * Takes the connections and the running transaction out of this producer, so the code that runs until
+	 * {@link #resume(Object)} is called gets new connections, outside the suspended transaction.
+	 * 
+	 * @return an opaque object holding the suspended state, to be given to {@link #resume(Object)}.
+	 */
+	public Object suspend() {
+		Suspended suspended = new Suspended();
+		suspended.transactionActive = transactionActive;
+		suspended.transactionReadOnly = transactionReadOnly;
+		suspended.transactionRollbackOnly = transactionRollbackOnly;
+
+		synchronized (cache) {
+			suspended.cache = new HashMap<String, Connection>(cache);
+			cache.clear();
+		}
+
+		endTransaction();
+		return suspended;
+	}
+
+	/**
+	 * Rolls back and closes the connections created since {@link #suspend()} was called and puts the suspended
+	 * connections and transaction back in this producer.
+	 * 
+	 * @param suspended
+	 *            the object returned by {@link #suspend()}.
+	 */
+	public void resume(Object suspended) {
+		Suspended state = (Suspended) suspended;
+		Map<String, Connection> created;
+
+		synchronized (cache) {
+			created = new HashMap<String, Connection>(cache);
+			cache.clear();
+			cache.putAll(state.cache);
+		}
+
+		transactionActive = state.transactionActive;
+		transactionReadOnly = state.transactionReadOnly;
+		transactionRollbackOnly = state.transactionRollbackOnly;
+
+		for (Map.Entry<String, Connection> entry : created.entrySet()) {
+			Connection connection = entry.getValue();
+			statusCache.remove(connection);
+
+			try {
+				if (!connection.isClosed()) {
+					//Descarta o que não foi confirmado pela transação executada durante a suspensão.
+					connection.rollback();
+					connection.close();
+
+					getLogger().info(getBundle().getString("connection-was-closed", entry.getKey()));
+				}
+
+			} catch (Exception cause) {
+				throw new DemoiselleException(getBundle().getString("connection-close-failed", entry.getKey()), cause);
+			}
+		}
+	}
+
 	public Map<String, Connection> getCache() {
 		return cache;
 	}
@@ -218,6 +340,17 @@ public class ConnectionProducer implements Serializable {
 		return statusCache.get(connection);
 	}
 
+	private static class Suspended {
+
+		private Map<String, Connection> cache;
+
+		private boolean transactionActive;
+
+		private boolean transactionReadOnly;
+
+		private boolean transactionRollbackOnly;
+	}
+
 	public static class Status implements Serializable {
 
 		private static final long serialVersionUID = 1L;
@@ -226,6 +359,8 @@ public class ConnectionProducer implements Serializable {
 
 		private boolean markedRollback = false;
 
+		private boolean readOnly = false;
+
 		public boolean isActive() {
 			return active;
 		}
@@ -241,5 +376,13 @@ public class ConnectionProducer implements Serializable {
 		public void setRollbackOnly(boolean markedRollback) {
 			this.markedRollback = markedRollback;
 		}
+
+		public boolean isReadOnly() {
+			return readOnly;
+		}
+
+		public void setReadOnly(boolean readOnly) {
+			this.readOnly = readOnly;
+		}
 	}
 }
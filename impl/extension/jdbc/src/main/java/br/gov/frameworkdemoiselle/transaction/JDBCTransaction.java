@@ -39,7 +39,10 @@ package br.gov.frameworkdemoiselle.transaction;
 import static br.gov.frameworkdemoiselle.annotation.Priority.L2_PRIORITY;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import br.gov.frameworkdemoiselle.DemoiselleException;
 import br.gov.frameworkdemoiselle.annotation.Priority;
@@ -49,12 +52,15 @@ import br.gov.frameworkdemoiselle.util.Beans;
 
 /**
  * Represents the strategy destinated to manage JDBC transactions.
+ * <p>
+ * Connections are enlisted lazily: beginning a transaction doesn't touch any connection, each one joins the
+ * transaction when it is first used. Commit and rollback only touch the connections that joined the transaction.
  * 
  * @author SERPRO
  * @see Transaction
  */
 @Priority(L2_PRIORITY)
-public class JDBCTransaction implements Transaction {
+public class JDBCTransaction implements ReadOnlyCapableTransaction, SuspendableTransaction {
 
 	private static final long serialVersionUID = 1L;
 
@@ -68,17 +74,39 @@ public class JDBCTransaction implements Transaction {
 		return producer;
 	}
 
+	/*
+	 * Conexões que fazem parte da transação. Fora de uma transação iniciada por begin(), todas as conexões abertas.
+	 */
 	private Collection<Connection> getDelegate() {
-		return getProducer().getCache().values();
+		Collection<Connection> connections = getProducer().getCache().values();
+
+		if (getProducer().isTransactionActive()) {
+			List<Connection> enlisted = new ArrayList<Connection>();
+
+			for (Connection connection : connections) {
+				if (getProducer().getStatus(connection).isActive()) {
+					enlisted.add(connection);
+				}
+			}
+
+			connections = enlisted;
+		}
+
+		return connections;
 	}
 
 	@Override
 	public void begin() {
-		Status status;
-		for (Connection connection : getDelegate()) {
-			status = getProducer().getStatus(connection);
-			status.setActive(true);
-		}
+		begin(false);
+	}
+
+	/**
+	 * Read-only transactions mark their connections as read-only, allowing the driver and the database to optimize
+	 * them. The connections are set back to read-write when the transaction ends.
+	 */
+	@Override
+	public void begin(boolean readOnly) {
+		getProducer().beginTransaction(readOnly);
 	}
 
 	/**
@@ -86,15 +114,40 @@ public class JDBCTransaction implements Transaction {
 	 */
 	@Override
 	public void commit() {
+		List<Connection> connections = new ArrayList<Connection>(getDelegate());
 		Status status;
+		int committed = 0;
+
+		try {
+			for (Connection connection : connections) {
+				try {
+					connection.commit();
+					committed++;
+
+					status = getProducer().getStatus(connection);
+					reset(connection, status);
+				} catch (Exception cause) {
+					//As conexões que ainda não foram confirmadas não podem continuar com a transação aberta.
+					rollbackQuietly(connections.subList(committed, connections.size()));
+					throw new TransactionException(cause);
+				}
+			}
+		} finally {
+			getProducer().endTransaction();
+		}
+	}
 
-		for (Connection connection : getDelegate()) {
+	/*
+	 * Desfaz as transações das conexões dadas ignorando as falhas, pois a falha que interessa ao chamador é a que
+	 * interrompeu o commit.
+	 */
+	private void rollbackQuietly(List<Connection> connections) {
+		for (Connection connection : connections) {
 			try {
-				connection.commit();
-				status = getProducer().getStatus(connection);
-				status.setActive(false);
-			} catch (Exception cause) {
-				throw new TransactionException(cause);
+				connection.rollback();
+				reset(connection, getProducer().getStatus(connection));
+			} catch (Exception ignored) {
+				//Segue para a próxima conexão.
 			}
 		}
 	}
@@ -106,49 +159,76 @@ public class JDBCTransaction implements Transaction {
 	public void rollback() {
 		Status status;
 
-		for (Connection connection : getDelegate()) {
-			try {
-				connection.rollback();
-				status = getProducer().getStatus(connection);
-				status.setActive(false);
-			} catch (Exception cause) {
-				throw new TransactionException(cause);
+		try {
+			for (Connection connection : getDelegate()) {
+				try {
+					connection.rollback();
+					status = getProducer().getStatus(connection);
+					reset(connection, status);
+				} catch (Exception cause) {
+					throw new TransactionException(cause);
+				}
 			}
+		} finally {
+			getProducer().endTransaction();
 		}
 	}
 
-	@Override
-	public void setRollbackOnly() {
-		Status status;
-		for (Connection connection : getDelegate()) {
-			status = getProducer().getStatus(connection);
-			status.setRollbackOnly(true);
+	private void reset(Connection connection, Status status) throws SQLException {
+		status.setActive(false);
+		status.setRollbackOnly(false);
+
+		if (status.isReadOnly()) {
+			connection.setReadOnly(false);
+			status.setReadOnly(false);
 		}
 	}
 
+	/**
+	 * Takes the connections of the running transaction out of the producer. The code that runs until
+	 * {@link #resume(Object)} uses new connections, with their own transactions.
+	 */
 	@Override
-	public boolean isActive() {
-		Status status;
-		boolean result = true;
+	public Object suspend() {
+		return getProducer().suspend();
+	}
 
-		for (Connection connection : getDelegate()) {
-			status = getProducer().getStatus(connection);
-			result = result && status.isActive();
+	/**
+	 * Closes the connections used while the transaction was suspended and puts the suspended ones back in the
+	 * producer.
+	 */
+	@Override
+	public void resume(Object suspended) {
+		try {
+			getProducer().resume(suspended);
+		} catch (Exception cause) {
+			throw new TransactionException(cause);
 		}
-
-		return result;
 	}
 
 	@Override
-	public boolean isMarkedRollback() {
+	public void setRollbackOnly() {
 		Status status;
-		boolean result = true;
+
+		//Conexões que ainda não fazem parte da transação consultam a marcação no produtor.
+		getProducer().setTransactionRollbackOnly();
 
 		for (Connection connection : getDelegate()) {
 			status = getProducer().getStatus(connection);
-			result = result && status.isMarkedRollback();
+			status.setRollbackOnly(true);
 		}
+	}
+
+	/**
+	 * A transaction is active from the moment it is begun, even if no connection joined it yet.
+	 */
+	@Override
+	public boolean isActive() {
+		return getProducer().isTransactionActive();
+	}
 
-		return result;
+	@Override
+	public boolean isMarkedRollback() {
+		return getProducer().isTransactionMarkedRollback();
 	}
 }
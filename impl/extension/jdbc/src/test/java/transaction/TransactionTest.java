@@ -52,7 +52,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import test.Tests;
+import br.gov.frameworkdemoiselle.internal.producer.ConnectionProducer;
 import br.gov.frameworkdemoiselle.transaction.JDBCTransaction;
+import br.gov.frameworkdemoiselle.transaction.ReadOnlyCapableTransaction;
+import br.gov.frameworkdemoiselle.transaction.SuspendableTransaction;
 import br.gov.frameworkdemoiselle.transaction.Transaction;
 import br.gov.frameworkdemoiselle.transaction.TransactionContext;
 import br.gov.frameworkdemoiselle.util.Beans;
@@ -136,6 +139,116 @@ public class TransactionTest {
 		}
 	}
 
+	@Test
+	public void onlyUsedConnectionsJoinTransaction() throws Exception {
+		ConnectionProducer producer = Beans.getReference(ConnectionProducer.class);
+		Connection conn = Beans.getReference(Connection.class);
+
+		transaction.begin();
+		for (Connection cached : producer.getCache().values()) {
+			Assert.assertFalse(producer.getStatus(cached).isActive());
+		}
+
+		conn.getAutoCommit();
+		Connection delegate = producer.getCache().values().iterator().next();
+		Assert.assertTrue(producer.getStatus(delegate).isActive());
+
+		transaction.commit();
+		Assert.assertFalse(producer.getStatus(delegate).isActive());
+		Assert.assertFalse(transaction.isActive());
+	}
+
+	@Test
+	public void requiresNewCommitSurvivesOuterRollback() throws Exception {
+		SuspendableTransaction suspendable = (SuspendableTransaction) transaction;
+		ConnectionProducer producer = Beans.getReference(ConnectionProducer.class);
+		Connection conn = Beans.getReference(Connection.class);
+
+		transaction.begin();
+		conn.getAutoCommit();
+		Connection outer = producer.getCache().values().iterator().next();
+
+		Object suspended = suspendable.suspend();
+		Assert.assertFalse(transaction.isActive());
+
+		MyEntity inner = new MyEntity();
+		inner.setId(5);
+		inner.setDescription("desc-5");
+
+		transaction.begin();
+		tb.insertWithouTransaction(inner);
+		Connection innerConnection = producer.getCache().values().iterator().next();
+		Assert.assertNotSame(outer, innerConnection);
+		transaction.commit();
+
+		suspendable.resume(suspended);
+		Assert.assertTrue(innerConnection.isClosed());
+		Assert.assertSame(outer, producer.getCache().values().iterator().next());
+		Assert.assertTrue(producer.getStatus(outer).isActive());
+		Assert.assertTrue(transaction.isActive());
+
+		MyEntity m = new MyEntity();
+		m.setId(6);
+		m.setDescription("desc-6");
+
+		tb.insertWithouTransaction(m);
+		transaction.rollback();
+
+		Assert.assertEquals("desc-5", tb.find(5).getDescription());
+		Assert.assertNull(tb.find(6).getDescription());
+	}
+
+	@Test
+	public void notSupportedRunsOutsideOuterTransaction() throws Exception {
+		SuspendableTransaction suspendable = (SuspendableTransaction) transaction;
+		ConnectionProducer producer = Beans.getReference(ConnectionProducer.class);
+		Connection conn = Beans.getReference(Connection.class);
+
+		transaction.begin();
+		conn.getAutoCommit();
+		Connection outer = producer.getCache().values().iterator().next();
+
+		Object suspended = suspendable.suspend();
+		Assert.assertFalse(transaction.isActive());
+
+		Assert.assertNull(tb.find(7).getDescription());
+		Connection innerConnection = producer.getCache().values().iterator().next();
+		Assert.assertNotSame(outer, innerConnection);
+		Assert.assertFalse(producer.getStatus(innerConnection).isActive());
+
+		suspendable.resume(suspended);
+		Assert.assertTrue(innerConnection.isClosed());
+		Assert.assertSame(outer, producer.getCache().values().iterator().next());
+		Assert.assertTrue(producer.getStatus(outer).isActive());
+		Assert.assertTrue(transaction.isActive());
+
+		MyEntity m = new MyEntity();
+		m.setId(7);
+		m.setDescription("desc-7");
+
+		tb.insertWithouTransaction(m);
+		transaction.rollback();
+
+		Assert.assertNull(tb.find(7).getDescription());
+	}
+
+	@Test
+	public void readOnlyConnectionRestored() throws Exception {
+		ConnectionProducer producer = Beans.getReference(ConnectionProducer.class);
+		Connection conn = Beans.getReference(Connection.class);
+
+		((ReadOnlyCapableTransaction) transaction).begin(true);
+		Assert.assertNull(tb.find(8).getDescription());
+
+		Connection delegate = producer.getCache().values().iterator().next();
+		Assert.assertTrue(delegate.isReadOnly());
+		Assert.assertTrue(producer.getStatus(delegate).isReadOnly());
+
+		transaction.commit();
+		Assert.assertFalse(conn.isReadOnly());
+		Assert.assertFalse(producer.getStatus(delegate).isReadOnly());
+	}
+
 	@Test(expected = SQLException.class)
 	public void closedConnection() throws Exception {
 		MyEntity m = new MyEntity();
@@ -36,18 +36,23 @@
  */
 package br.gov.frameworkdemoiselle.internal.producer;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import javax.enterprise.context.RequestScoped;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
 import javax.persistence.FlushModeType;
 
 import org.slf4j.Logger;
 
 import br.gov.frameworkdemoiselle.internal.configuration.EntityManagerConfig;
 import br.gov.frameworkdemoiselle.internal.configuration.EntityManagerConfig.EntityManagerScope;
+import br.gov.frameworkdemoiselle.transaction.TransactionException;
 import br.gov.frameworkdemoiselle.util.Beans;
 import br.gov.frameworkdemoiselle.util.NameQualifier;
 import br.gov.frameworkdemoiselle.util.ResourceBundle;
@@ -62,6 +67,14 @@ import br.gov.frameworkdemoiselle.util.ResourceBundle;
  * open the "demoiselle.properties" file and edit the property "frameworkdemoiselle.persistence.entitymanager.scope". The default scope is the
  * {@link RequestScoped}.</p>
  * 
+ * <p>Entity managers are enlisted lazily: after {@link #beginTransaction(boolean)} an entity manager joins the transaction
+ * only when it is first obtained through {@link #getEntityManager(String)}, so persistence units not used by the
+ * transaction are not touched by it. The transaction belongs to the thread that began it: stores shared by several
+ * requests (application and session scopes) don't enlist the entity managers used by the other requests, and stores
+ * created on each use (no scope) still see the transaction begun through another instance.</p>
+ * 
+ * <p>Suspending a transaction also belongs to the thread: until {@link #resume(Object)}, the thread gets its own entity
+ * managers, while the other requests sharing the store keep using the cached ones.</p>
  * 
  * @author serpro
  *
@@ -70,50 +83,235 @@ public abstract class AbstractEntityManagerStore implements EntityManagerStore {
 	
 	private static final long serialVersionUID = 1L;
 
+	/*
+	 * Propriedade do Hibernate que desliga o flush automático. Outros provedores ignoram propriedades desconhecidas.
+	 */
+	private static final String HIBERNATE_FLUSH_MODE = "org.hibernate.flushMode";
+
 	private final Map<String, EntityManager> cache = Collections.synchronizedMap(new HashMap<String, EntityManager>());
+
+	/*
+	 * A transação pertence à thread que a iniciou, e não ao store: stores de aplicação e sessão são compartilhados
+	 * por várias requisições, e sem escopo um novo store é criado a cada uso.
+	 */
+	private static final ThreadLocal<TransactionState> TRANSACTION = new ThreadLocal<TransactionState>();
+
+	/*
+	 * Entity managers usados pela thread enquanto a sua transação está suspensa. Eles não entram no cache, que nos
+	 * escopos de aplicação e sessão é compartilhado com as outras requisições.
+	 */
+	private static final ThreadLocal<Map<String, EntityManager>> SUSPENDED =
+			new ThreadLocal<Map<String, EntityManager>>();
 	
 	public EntityManager getEntityManager(String persistenceUnit) {
+		EntityManager entityManager = getOrCreate(persistenceUnit);
+
+		TransactionState current = TRANSACTION.get();
+		if (current != null && current.active) {
+			enlist(entityManager, current);
+		}
+
+		return entityManager;
+	}
+
+	private EntityManager getOrCreate(String persistenceUnit) {
+		Map<String, EntityManager> entityManagers = getEntityManagerMap();
 		EntityManager entityManager = null;
 
-		if (cache.containsKey(persistenceUnit)) {
-			entityManager = cache.get(persistenceUnit);
+		if (entityManagers.containsKey(persistenceUnit)) {
+			entityManager = entityManagers.get(persistenceUnit);
 
 		} else {
 			entityManager = getFactory().create(persistenceUnit).createEntityManager();
 			entityManager.setFlushMode(FlushModeType.AUTO);
 
-			cache.put(persistenceUnit, entityManager);
+			entityManagers.put(persistenceUnit, entityManager);
 			this.getLogger().info(getBundle().getString("entity-manager-was-created", persistenceUnit));
 		}
 
 		return entityManager;
 	}
+
+	private void enlist(EntityManager entityManager, TransactionState current) {
+		if (!current.enlisted.containsKey(entityManager)) {
+			try {
+				EntityTransaction entityTransaction = entityManager.getTransaction();
+				FlushModeType flushMode = entityManager.getFlushMode();
+
+				if (!entityTransaction.isActive()) {
+					entityTransaction.begin();
+				}
+
+				if (current.readOnly) {
+					current.properties.put(entityManager, entityManager.getProperties().get(HIBERNATE_FLUSH_MODE));
+					entityManager.setFlushMode(FlushModeType.COMMIT);
+					entityManager.setProperty(HIBERNATE_FLUSH_MODE, "MANUAL");
+				}
+
+				current.enlisted.put(entityManager, flushMode);
+			}
+			catch (Exception cause) {
+				current.rollbackOnly = true;
+				throw new TransactionException(cause);
+			}
+		}
+	}
+
+	/**
+	 * From now on, the entity managers obtained through {@link #getEntityManager(String)} join a transaction. None is
+	 * begun by this method.
+	 * 
+	 * @param readOnly
+	 *            <code>true</code> to switch the enlisted entity managers to {@link FlushModeType#COMMIT} and, with
+	 *            Hibernate, to disable the automatic flush altogether.
+	 */
+	public void beginTransaction(boolean readOnly) {
+		TransactionState state = new TransactionState();
+		state.readOnly = readOnly;
+		state.active = true;
+
+		TRANSACTION.set(state);
+	}
+
+	/**
+	 * Ends the transaction begun by {@link #beginTransaction(boolean)}, restoring the flush mode and the Hibernate flush
+	 * mode property of the entity managers enlisted by a read-only transaction. Completing the transactions of the
+	 * entity managers is left to the caller.
+	 */
+	public void endTransaction() {
+		TransactionState current = getTransactionState();
+		TRANSACTION.remove();
+
+		if (current.readOnly) {
+			for (Map.Entry<EntityManager, FlushModeType> entry : current.enlisted.entrySet()) {
+				EntityManager entityManager = entry.getKey();
+
+				if (entityManager.isOpen()) {
+					//Sem valor anterior, a propriedade volta a corresponder ao flush mode restaurado (AUTO ou COMMIT).
+					Object property = current.properties.get(entityManager);
+					entityManager.setProperty(HIBERNATE_FLUSH_MODE, property != null ? property : entry.getValue()
+							.name());
+					entityManager.setFlushMode(entry.getValue());
+				}
+			}
+		}
+	}
+
+	public boolean isTransactionActive() {
+		return getTransactionState().active;
+	}
+
+	public void setTransactionRollbackOnly() {
+		TransactionState current = TRANSACTION.get();
+
+		if (current != null) {
+			current.rollbackOnly = true;
+		}
+	}
+
+	public boolean isTransactionMarkedRollback() {
+		return getTransactionState().rollbackOnly;
+	}
+
+	private TransactionState getTransactionState() {
+		TransactionState current = TRANSACTION.get();
+
+		//Sem transação iniciada nesta thread nada é guardado, para não reter o estado em threads de um pool.
+		return current != null ? current : new TransactionState();
+	}
 	
 	void init() {
 		for (String persistenceUnit : getFactory().getCache().keySet()) {
-			getEntityManager(persistenceUnit);
+			getOrCreate(persistenceUnit);
 		}
 	}
 
 	void close() {
+		close(cache);
+	}
+
+	private void close(Map<String, EntityManager> entityManagers) {
 		//Se o produtor não possui escopo, então o ciclo de vida
 		//de EntityManager produzidos é responsabilidade do desenvolvedor. Não
 		//fechamos os EntityManagers aqui.
 		EntityManagerConfig configuration = getConfiguration();
 		if (configuration.getEntityManagerScope() != EntityManagerScope.NOSCOPE){
-			for (EntityManager entityManager : cache.values()) {
-				entityManager.close();
+			for (EntityManager entityManager : entityManagers.values()) {
+				if (entityManager.isOpen()) {
+					entityManager.close();
+				}
+			}
+		}
+		entityManagers.clear();
+	}
+
+	/**
+	 * Takes the running transaction out of the current thread, which from now on gets its own entity managers. The
+	 * cached entity managers are not touched, so the other requests sharing this store are not affected.
+	 */
+	public Object suspend() {
+		Suspended suspended = new Suspended();
+		suspended.transaction = TRANSACTION.get();
+		suspended.entityManagers = SUSPENDED.get();
+
+		TRANSACTION.remove();
+		SUSPENDED.set(new HashMap<String, EntityManager>());
+
+		return suspended;
+	}
+
+	/**
+	 * Closes the entity managers the current thread used since {@link #suspend()} and gives it back the suspended
+	 * transaction and entity managers.
+	 */
+	public void resume(Object suspended) {
+		Suspended state = (Suspended) suspended;
+		Map<String, EntityManager> entityManagers = SUSPENDED.get();
+
+		try {
+			if (entityManagers != null) {
+				close(entityManagers);
+			}
+
+		} finally {
+			if (state.entityManagers != null) {
+				SUSPENDED.set(state.entityManagers);
+			} else {
+				SUSPENDED.remove();
+			}
+
+			if (state.transaction != null) {
+				TRANSACTION.set(state.transaction);
+			} else {
+				TRANSACTION.remove();
 			}
 		}
-		cache.clear();
+	}
+
+	/*
+	 * Com a transação suspensa, a thread usa os seus próprios entity managers no lugar dos que estão no cache.
+	 */
+	private Map<String, EntityManager> getEntityManagerMap() {
+		Map<String, EntityManager> entityManagers = SUSPENDED.get();
+		return entityManagers != null ? entityManagers : cache;
 	}
 
 	public Map<String, EntityManager> getCache() {
-		if (cache==null || cache.isEmpty()){
+		Map<String, EntityManager> entityManagers = getEntityManagerMap();
+
+		if (entityManagers.isEmpty()){
 			init();
 		}
 		
-		return cache;
+		return entityManagers;
+	}
+
+	public Collection<EntityManager> getEntityManagers() {
+		Map<String, EntityManager> entityManagers = getEntityManagerMap();
+
+		synchronized (entityManagers) {
+			return new ArrayList<EntityManager>(entityManagers.values());
+		}
 	}
 	
 	private EntityManagerFactoryProducer getFactory(){
@@ -131,4 +329,28 @@ public abstract class AbstractEntityManagerStore implements EntityManagerStore {
 	private EntityManagerConfig getConfiguration(){
 		return Beans.getReference(EntityManagerConfig.class);
 	}
+
+	/*
+	 * Estado da transação iniciada pelo store e entity managers que já fazem parte dela, com o flush mode anterior de
+	 * cada um e, nas transações somente leitura, o valor anterior da propriedade de flush mode do Hibernate.
+	 */
+	private static final class TransactionState {
+
+		private boolean active;
+
+		private boolean readOnly;
+
+		private boolean rollbackOnly;
+
+		private final Map<EntityManager, FlushModeType> enlisted = new IdentityHashMap<EntityManager, FlushModeType>();
+
+		private final Map<EntityManager, Object> properties = new IdentityHashMap<EntityManager, Object>();
+	}
+
+	private static final class Suspended {
+
+		private TransactionState transaction;
+
+		private Map<String, EntityManager> entityManagers;
+	}
 }
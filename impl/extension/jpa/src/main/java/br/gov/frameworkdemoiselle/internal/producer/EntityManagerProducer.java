@@ -120,7 +120,10 @@ public class EntityManagerProducer implements Serializable {
 		return getStore().getCache();
 	}
 
-	private EntityManagerStore getStore() {
+	/**
+	 * @return the store holding the entity managers of the configured scope.
+	 */
+	public EntityManagerStore getStore() {
 		switch (configuration.getEntityManagerScope()) {
 			case REQUEST:
 				return storeInstance.select(RequestEntityManagerStore.class).get();
@@ -37,6 +37,7 @@
 package br.gov.frameworkdemoiselle.internal.producer;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -60,7 +61,52 @@ public interface EntityManagerStore extends Serializable {
 	public abstract void terminate();
 	
 	Map<String, EntityManager> getCache();
+
+	/**
+	 * Returns the entity managers already created by this store. Unlike {@link #getCache()}, the entity managers of the
+	 * persistence units not used yet are not created.
+	 */
+	Collection<EntityManager> getEntityManagers();
 	
 	public EntityManager getEntityManager(String persistenceUnit);
 
+	/**
+	 * From now on, the entity managers obtained by the current thread through {@link #getEntityManager(String)} join a transaction, each one
+	 * when it is first obtained. No entity manager is touched by this method.
+	 * 
+	 * @param readOnly
+	 *            <code>true</code> if the enlisted entity managers must not flush their changes.
+	 */
+	void beginTransaction(boolean readOnly);
+
+	/**
+	 * Ends the transaction begun by {@link #beginTransaction(boolean)}. The caller must have committed or rolled back
+	 * the enlisted entity managers.
+	 */
+	void endTransaction();
+
+	boolean isTransactionActive();
+
+	void setTransactionRollbackOnly();
+
+	boolean isTransactionMarkedRollback();
+
+	/**
+	 * Takes the running transaction out of the current thread, so its next calls to {@link #getEntityManager(String)}
+	 * create new entity managers, outside the suspended transaction. Other threads keep using the cached entity
+	 * managers.
+	 * 
+	 * @return an opaque object holding the suspended state, to be given to {@link #resume(Object)}.
+	 */
+	Object suspend();
+
+	/**
+	 * Closes the entity managers created by the current thread since {@link #suspend()} was called and gives it back
+	 * the suspended entity managers and transaction.
+	 * 
+	 * @param suspended
+	 *            the object returned by {@link #suspend()}.
+	 */
+	void resume(Object suspended);
+
 }
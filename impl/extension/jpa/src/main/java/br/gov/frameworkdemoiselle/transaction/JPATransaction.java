@@ -42,21 +42,27 @@ import java.util.Collection;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
+import javax.persistence.FlushModeType;
 
 import br.gov.frameworkdemoiselle.annotation.Priority;
 import br.gov.frameworkdemoiselle.internal.producer.EntityManagerProducer;
+import br.gov.frameworkdemoiselle.internal.producer.EntityManagerStore;
 import br.gov.frameworkdemoiselle.util.Beans;
 import br.gov.frameworkdemoiselle.util.NameQualifier;
 import br.gov.frameworkdemoiselle.util.ResourceBundle;
 
 /**
  * Represents the strategy destinated to manage JPA transactions.
+ * <p>
+ * Entity managers are enlisted lazily: beginning a transaction doesn't touch any entity manager, each one joins the
+ * transaction when it is first used. Commit and rollback only touch the entity managers whose transactions are active,
+ * so persistence units not used by the transaction don't take part in it.
  * 
  * @author SERPRO
  * @see Transaction
  */
 @Priority(L2_PRIORITY)
-public class JPATransaction implements Transaction {
+public class JPATransaction implements ReadOnlyCapableTransaction, SuspendableTransaction {
 
 	private static final long serialVersionUID = 1L;
 
@@ -71,6 +77,10 @@ public class JPATransaction implements Transaction {
 
 		return producer;
 	}
+
+	private EntityManagerStore getStore() {
+		return getProducer().getStore();
+	}
 	
 	private ResourceBundle getBundle() {
 		if (bundle==null) {
@@ -84,28 +94,27 @@ public class JPATransaction implements Transaction {
 		return getProducer().getCache().values();
 	}
 
+	/*
+	 * Apenas os entity managers já criados participam da transação. O getDelegate() criaria os que faltam, inclusive
+	 * enquanto a transação está suspensa, e esses seriam fechados logo em seguida pelo resume.
+	 */
+	private Collection<EntityManager> getEntityManagers() {
+		return getStore().getEntityManagers();
+	}
+
 	@Override
 	public void begin() {
-		EntityTransaction transaction;
-		
-		try {
-			for (EntityManager entityManager : getDelegate()) {
-				transaction = entityManager.getTransaction();
-	
-				if (!transaction.isActive()) {
-					transaction.begin();
-				}
-			}
-		}
-		catch(Exception e) {
-			/*
-			Precisamos marcar para rollback todos os EntityManagers que conseguimos iniciar
-			antes da exceção ser disparada.
-			*/
-			setRollbackOnly();
-			
-			throw new TransactionException(e);
-		}
+		begin(false);
+	}
+
+	/**
+	 * Read-only transactions switch their entity managers to {@link FlushModeType#COMMIT}, so queries don't flush
+	 * pending changes. With Hibernate the automatic flush is disabled altogether, skipping the flush and the dirty check
+	 * on commit. The previous flush mode is restored when the transaction ends.
+	 */
+	@Override
+	public void begin(boolean readOnly) {
+		getStore().beginTransaction(readOnly);
 	}
 
 	@Override
@@ -114,7 +123,7 @@ public class JPATransaction implements Transaction {
 		
 		int commitedEntityManagers = 0;
 		try {
-			for (EntityManager entityManager : getDelegate()) {
+			for (EntityManager entityManager : getEntityManagers()) {
 				transaction = entityManager.getTransaction();
 	
 				if (transaction.isActive()) {
@@ -141,6 +150,9 @@ public class JPATransaction implements Transaction {
 				throw new TransactionException(e);
 			}
 		}
+		finally {
+			getStore().endTransaction();
+		}
 	}
 
 	@Override
@@ -148,7 +160,7 @@ public class JPATransaction implements Transaction {
 		EntityTransaction transaction;
 		
 		try {
-			for (EntityManager entityManager : getDelegate()) {
+			for (EntityManager entityManager : getEntityManagers()) {
 				transaction = entityManager.getTransaction();
 	
 				if (transaction.isActive()) {
@@ -159,6 +171,9 @@ public class JPATransaction implements Transaction {
 		catch(Exception e) {
 			throw new TransactionException(e);
 		}
+		finally {
+			getStore().endTransaction();
+		}
 	}
 
 	@Override
@@ -166,7 +181,10 @@ public class JPATransaction implements Transaction {
 		EntityTransaction transaction;
 		
 		try {
-			for (EntityManager entityManager : getDelegate()) {
+			//Entity managers que ainda não fazem parte da transação consultam a marcação no store.
+			getStore().setTransactionRollbackOnly();
+
+			for (EntityManager entityManager : getEntityManagers()) {
 				transaction = entityManager.getTransaction();
 	
 				if (transaction.isActive()) {
@@ -179,13 +197,48 @@ public class JPATransaction implements Transaction {
 		}
 	}
 
+	/**
+	 * Takes the entity managers of the running transaction out of the store, so the code that runs until
+	 * {@link #resume(Object)} gets new entity managers, with their own transactions.
+	 */
+	@Override
+	public Object suspend() {
+		try {
+			return getStore().suspend();
+		}
+		catch(Exception e) {
+			throw new TransactionException(e);
+		}
+	}
+
+	/**
+	 * Closes the entity managers used while the transaction was suspended and puts the suspended ones back in the
+	 * store.
+	 */
+	@Override
+	public void resume(Object suspended) {
+		try {
+			getStore().resume(suspended);
+		}
+		catch(Exception e) {
+			throw new TransactionException(e);
+		}
+	}
+
+	/**
+	 * A transaction is active from the moment it is begun, even if no entity manager joined it yet.
+	 */
 	@Override
 	public boolean isActive() {
+		if (getStore().isTransactionActive()) {
+			return true;
+		}
+
 		boolean active = false;
 
 		EntityTransaction transaction;
 		try {
-			for (EntityManager entityManager : getDelegate()) {
+			for (EntityManager entityManager : getEntityManagers()) {
 				transaction = entityManager.getTransaction();
 	
 				if (transaction.isActive()) {
@@ -203,11 +256,15 @@ public class JPATransaction implements Transaction {
 
 	@Override
 	public boolean isMarkedRollback() {
+		if (getStore().isTransactionMarkedRollback()) {
+			return true;
+		}
+
 		boolean rollbackOnly = false;
 
 		EntityTransaction transaction;
 		try {
-			for (EntityManager entityManager : getDelegate()) {
+			for (EntityManager entityManager : getEntityManagers()) {
 				transaction = entityManager.getTransaction();
 	
 				if (transaction.isActive() && transaction.getRollbackOnly()) {
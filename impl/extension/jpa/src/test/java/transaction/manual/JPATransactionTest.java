@@ -2,12 +2,16 @@ package transaction.manual;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNotSame;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.Assert.fail;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.TransactionRequiredException;
 
 import junit.framework.Assert;
@@ -20,7 +24,10 @@ import org.junit.runner.RunWith;
 
 import test.Tests;
 import br.gov.frameworkdemoiselle.annotation.Name;
+import br.gov.frameworkdemoiselle.internal.producer.EntityManagerProducer;
 import br.gov.frameworkdemoiselle.transaction.JPATransaction;
+import br.gov.frameworkdemoiselle.transaction.ReadOnlyCapableTransaction;
+import br.gov.frameworkdemoiselle.transaction.SuspendableTransaction;
 import br.gov.frameworkdemoiselle.transaction.Transaction;
 import br.gov.frameworkdemoiselle.transaction.TransactionContext;
 import br.gov.frameworkdemoiselle.transaction.TransactionException;
@@ -190,6 +197,137 @@ public class JPATransactionTest {
 		assertEquals("Test description", entity1.getDescription());
 	}
 
+	@Test
+	public void onlyUsedEntityManagersJoinTransaction() {
+		Transaction transaction = transactionContext.getCurrentTransaction();
+		EntityManagerProducer producer = Beans.getReference(EntityManagerProducer.class);
+
+		MyEntity1 entity1 = new MyEntity1();
+		entity1.setId(createId("id-8"));
+		entity1.setDescription("desc-8");
+
+		transaction.begin();
+		assertFalse(producer.getCache().get("pu1").getTransaction().isActive());
+
+		em1.persist(entity1);
+		assertTrue(producer.getCache().get("pu1").getTransaction().isActive());
+		assertFalse(producer.getCache().get("pu2").getTransaction().isActive());
+
+		transaction.commit();
+		assertFalse(transaction.isActive());
+	}
+
+	@Test
+	public void requiresNewCommitSurvivesOuterRollback() {
+		SuspendableTransaction transaction = (SuspendableTransaction) transactionContext.getCurrentTransaction();
+		EntityManagerProducer producer = Beans.getReference(EntityManagerProducer.class);
+
+		MyEntity1 outerEntity = new MyEntity1();
+		outerEntity.setId(createId("id-9"));
+		outerEntity.setDescription("desc-9");
+
+		MyEntity1 innerEntity = new MyEntity1();
+		innerEntity.setId(createId("id-10"));
+		innerEntity.setDescription("desc-10");
+
+		transaction.begin();
+		em1.persist(outerEntity);
+		EntityManager outer = producer.getCache().get("pu1");
+
+		Object suspended = transaction.suspend();
+		assertFalse(transaction.isActive());
+
+		transaction.begin();
+		em1.persist(innerEntity);
+		EntityManager inner = producer.getCache().get("pu1");
+		assertNotSame(outer, inner);
+		transaction.commit();
+
+		transaction.resume(suspended);
+		assertFalse(inner.isOpen());
+		assertSame(outer, producer.getCache().get("pu1"));
+		assertTrue(transaction.isActive());
+		assertTrue(outer.getTransaction().isActive());
+
+		transaction.rollback();
+		em1.clear();
+
+		assertNull(em1.find(MyEntity1.class, createId("id-9")));
+		assertNotNull(em1.find(MyEntity1.class, createId("id-10")));
+	}
+
+	@Test
+	public void notSupportedRunsOutsideOuterTransaction() {
+		SuspendableTransaction transaction = (SuspendableTransaction) transactionContext.getCurrentTransaction();
+		EntityManagerProducer producer = Beans.getReference(EntityManagerProducer.class);
+
+		MyEntity1 outerEntity = new MyEntity1();
+		outerEntity.setId(createId("id-11"));
+		outerEntity.setDescription("desc-11");
+
+		transaction.begin();
+		em1.persist(outerEntity);
+		EntityManager outer = producer.getCache().get("pu1");
+
+		Object suspended = transaction.suspend();
+		assertFalse(transaction.isActive());
+
+		EntityManager inner = producer.getCache().get("pu1");
+		assertNotSame(outer, inner);
+		assertFalse(inner.getTransaction().isActive());
+		assertFalse(inner.contains(outerEntity));
+
+		transaction.resume(suspended);
+		assertFalse(inner.isOpen());
+		assertSame(outer, producer.getCache().get("pu1"));
+		assertTrue(transaction.isActive());
+		assertTrue(outer.contains(outerEntity));
+
+		transaction.rollback();
+		em1.clear();
+
+		assertNull(em1.find(MyEntity1.class, createId("id-11")));
+	}
+
+	@Test
+	public void readOnlyRestoresFlushMode() {
+		ReadOnlyCapableTransaction transaction = (ReadOnlyCapableTransaction) transactionContext
+				.getCurrentTransaction();
+		EntityManagerProducer producer = Beans.getReference(EntityManagerProducer.class);
+
+		transaction.begin(true);
+		em1.find(MyEntity1.class, createId("id-12"));
+
+		EntityManager delegate = producer.getCache().get("pu1");
+		assertEquals(FlushModeType.COMMIT, delegate.getFlushMode());
+
+		transaction.commit();
+		assertEquals(FlushModeType.AUTO, delegate.getFlushMode());
+		assertFalse("MANUAL".equals(String.valueOf(delegate.getProperties().get("org.hibernate.flushMode"))));
+	}
+
+	@Test
+	public void readOnlyRestoresHibernateFlushModeProperty() {
+		ReadOnlyCapableTransaction transaction = (ReadOnlyCapableTransaction) transactionContext
+				.getCurrentTransaction();
+		EntityManagerProducer producer = Beans.getReference(EntityManagerProducer.class);
+
+		EntityManager delegate = producer.getCache().get("pu1");
+		delegate.setProperty("org.hibernate.flushMode", "COMMIT");
+
+		try {
+			transaction.begin(true);
+			em1.find(MyEntity1.class, createId("id-13"));
+			transaction.commit();
+
+			assertEquals("COMMIT", String.valueOf(delegate.getProperties().get("org.hibernate.flushMode")));
+
+		} finally {
+			delegate.setProperty("org.hibernate.flushMode", "AUTO");
+			delegate.setFlushMode(FlushModeType.AUTO);
+		}
+	}
+
 	private String createId(String id) {
 		return this.getClass().getName() + "_" + id;
 	}
@@ -49,6 +49,9 @@ public class ViewScopeConfig implements Serializable {
 	@Name("timeout")
 	private int viewScopeTimeout = 1800;
 
+	@Name("max.views")
+	private int maxViews = 5;
+
 	public int getViewScopeTimeout() {
 		return viewScopeTimeout;
 	}
@@ -56,4 +59,12 @@ public class ViewScopeConfig implements Serializable {
 	public void setViewScopeTimeout(int viewScopeTimeout) {
 		this.viewScopeTimeout = viewScopeTimeout;
 	}
+
+	public int getMaxViews() {
+		return maxViews;
+	}
+
+	public void setMaxViews(int maxViews) {
+		this.maxViews = maxViews;
+	}
 }
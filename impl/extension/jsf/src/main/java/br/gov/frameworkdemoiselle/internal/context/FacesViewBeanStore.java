@@ -1,16 +1,30 @@
 package br.gov.frameworkdemoiselle.internal.context;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import javax.enterprise.context.spi.Contextual;
-import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.Alternative;
+import javax.servlet.http.HttpSession;
 
 /**
- * Store that keeps view scoped beans. It associates all view scoped beans with a view ID.
- * When the ID changes (meaning the view changed) all old view scoped beans are destroyed
- * before new beans for the new view are created and stored.
- * 
+ * Store that keeps view scoped beans. It associates view scoped beans with a view ID and keeps
+ * the beans of the most recently used views of a session, so a user working on several browser
+ * tabs doesn't have the beans of each tab rebuilt when switching between them. When more views
+ * than allowed are kept, the beans of the least recently used view are destroyed.
+ * <p>
+ * This store is kept in the HTTP session and holds only the IDs of the views. The beans of each
+ * view are kept in a session attribute of their own, so containers that replicate only the
+ * attributes set during a request don't send the views that were not used.
+ *
  * @author SERPRO
  *
  */
@@ -19,33 +33,178 @@ public class FacesViewBeanStore implements Serializable {
 
 	private static final long serialVersionUID = -8265458933971929432L;
 
-	private Long lastViewId = null;
+	static final String SESSION_KEY = FacesViewBeanStore.class.getCanonicalName();
+
+	//Ordenado por acesso: o primeiro elemento é a view usada há mais tempo. Depois que a sessão é
+	//restaurada o mapa guarda apenas os IDs, e cada store é lido do seu atributo no primeiro acesso.
+	private transient Map<Long, BeanStore> stores = createStoreMap();
+
+	//Views descartadas recentemente, usadas para contar as views que precisaram ser recriadas.
+	private final Set<Long> evictedViews = new LinkedHashSet<Long>();
+
+	//Última view usada. Enquanto a mesma view é usada ela continua sendo a mais recente do mapa,
+	//por isso pode ser lida sem bloqueio.
+	private transient volatile CurrentView current;
+
+	/**
+	 * Returns the store of the given view, creating it if needed. The store returned may be evicted by a concurrent
+	 * request for another view while it is in use, in which case it is closed and the beans created in it from then on
+	 * are destroyed as soon as they are created.
+	 * 
+	 * @param viewId ID of the view.
+	 * @param session Session where the views are kept.
+	 * @param context Context that owns the beans.
+	 * @param maxViews Maximum number of views kept.
+	 */
+	public BeanStore getStore(Long viewId, HttpSession session, FacesViewContextImpl context, int maxViews) {
+		CurrentView last = current;
+		if (last != null && last.viewId.equals(viewId)) {
+			return last.store;
+		}
+
+		BeanStore store;
+		List<BeanStore> evicted = null;
+
+		synchronized (this) {
+			store = stores.get(viewId);
+
+			if (store == null) {
+				store = (BeanStore) session.getAttribute(getViewKey(viewId));
+			}
+
+			if (store == null) {
+				if (evictedViews.remove(viewId)) {
+					context.viewRebuilt();
+				}
+
+				store = context.createPassivatingStore();
+				session.setAttribute(getViewKey(viewId), store);
+			}
+
+			boolean added = !stores.containsKey(viewId);
+			stores.put(viewId, store);
 
-	private BeanStore store;
+			if (added) {
+				evicted = evict(Math.max(1, maxViews), session);
 
-	synchronized BeanStore getStore(Long viewId, AbstractCustomContext context) {
-		if (lastViewId == null || !lastViewId.equals(viewId)) {
-			clear(context);
-			lastViewId = viewId;
-			store = AbstractCustomContext.createStore();
+				//A lista de views mudou, por isso este store também precisa ser replicado.
+				session.setAttribute(SESSION_KEY, this);
+			}
+
+			current = new CurrentView(viewId, store);
+		}
+
+		//Os beans das views descartadas são destruídos fora do bloqueio.
+		if (evicted != null) {
+			for (BeanStore view : evicted) {
+				context.clearInstances(view);
+				context.viewEvicted();
+			}
 		}
 
 		return store;
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	public void clear(AbstractCustomContext context) {
-		if (store != null) {
-			for (String id : store) {
-				Contextual contextual = context.getContextualStore().getContextual(id);
-				Object instance = store.getInstance(id);
-				CreationalContext creationalContext = store.getCreationalContext(id);
+	private List<BeanStore> evict(int maxViews, HttpSession session) {
+		List<BeanStore> evicted = new ArrayList<BeanStore>();
+		Iterator<Map.Entry<Long, BeanStore>> iterator = stores.entrySet().iterator();
+
+		while (stores.size() > maxViews && iterator.hasNext()) {
+			Map.Entry<Long, BeanStore> eldest = iterator.next();
+			iterator.remove();
+
+			BeanStore store = discard(eldest.getKey(), eldest.getValue(), session);
+			if (store != null) {
+				evicted.add(store);
+			}
+
+			evictedViews.add(eldest.getKey());
+			if (evictedViews.size() > maxViews) {
+				evictedViews.remove(evictedViews.iterator().next());
+			}
+		}
+
+		return evicted;
+	}
+
+	/**
+	 * Destroys the beans of all views kept by this store.
+	 */
+	public void clear(HttpSession session, AbstractCustomContext context) {
+		List<BeanStore> views = new ArrayList<BeanStore>();
 
-				if (contextual != null && instance != null) {
-					contextual.destroy(instance, creationalContext);
+		synchronized (this) {
+			for (Map.Entry<Long, BeanStore> view : stores.entrySet()) {
+				BeanStore store = discard(view.getKey(), view.getValue(), session);
+				if (store != null) {
+					views.add(store);
 				}
 			}
-			store.clear();
+
+			stores.clear();
+			evictedViews.clear();
+			current = null;
+		}
+
+		for (BeanStore store : views) {
+			context.clearInstances(store);
+		}
+	}
+
+	/*
+	 * Chamado sob o bloqueio: remove o atributo da view e fecha o seu store, assim nenhuma requisição
+	 * volta a usá-lo, e as que ainda o usam não deixam beans sem destruir. Retorna o store, cujos beans
+	 * devem ser destruídos fora do bloqueio.
+	 */
+	private static BeanStore discard(Long viewId, BeanStore store, HttpSession session) {
+		String key = getViewKey(viewId);
+
+		//Views restauradas de outro nó que ainda não foram usadas só existem no atributo da sessão.
+		if (store == null) {
+			store = (BeanStore) session.getAttribute(key);
+		}
+
+		session.removeAttribute(key);
+
+		if (store != null) {
+			store.close();
+		}
+
+		return store;
+	}
+
+	static String getViewKey(Long viewId) {
+		return SESSION_KEY + "." + viewId;
+	}
+
+	private static Map<Long, BeanStore> createStoreMap() {
+		return new LinkedHashMap<Long, BeanStore>(16, 0.75f, true);
+	}
+
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeObject(new ArrayList<Long>(stores.keySet()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		stores = createStoreMap();
+
+		for (Long viewId : (List<Long>) in.readObject()) {
+			stores.put(viewId, null);
+		}
+	}
+
+	private static final class CurrentView {
+
+		private final Long viewId;
+
+		private final BeanStore store;
+
+		private CurrentView(Long viewId, BeanStore store) {
+			this.viewId = viewId;
+			this.store = store;
 		}
 	}
 }
@@ -50,6 +50,7 @@ import javax.servlet.http.HttpSession;
 import br.gov.frameworkdemoiselle.annotation.Priority;
 import br.gov.frameworkdemoiselle.annotation.ViewScoped;
 import br.gov.frameworkdemoiselle.context.ViewContext;
+import br.gov.frameworkdemoiselle.internal.configuration.ViewScopeConfig;
 import br.gov.frameworkdemoiselle.lifecycle.BeforeSessionDestroyed;
 import br.gov.frameworkdemoiselle.util.Beans;
 import br.gov.frameworkdemoiselle.util.Faces;
@@ -68,14 +69,29 @@ import br.gov.frameworkdemoiselle.util.Faces;
 public class FacesViewContextImpl extends AbstractCustomContext implements ViewContext {
 	
 	private final AtomicLong atomicLong = new AtomicLong();
+
+	private final AtomicLong evictedViews = new AtomicLong();
+
+	private final AtomicLong rebuiltViews = new AtomicLong();
+
+	private transient ViewScopeConfig config;
 	
 	//private ConcurrentHashMap<String, FacesViewBeanStore> sessionBeanStore = new ConcurrentHashMap<String, FacesViewBeanStore>();
 
 	private static final String FACES_KEY = FacesViewContextImpl.class.getCanonicalName();
-	private static final String VIEW_STORE_KEY = FacesViewBeanStore.class.getCanonicalName();
+	private static final String VIEW_STORE_KEY = FacesViewBeanStore.SESSION_KEY;
+
+	//Deve ser uma potência de 2.
+	private static final int LOCK_STRIPES = 64;
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
 
 	public FacesViewContextImpl() {
 		super(ViewScoped.class);
+
+		for (int i = 0; i < LOCK_STRIPES; i++){
+			locks[i] = new Object();
+		}
 	}
 	
 	@Override
@@ -91,13 +107,14 @@ public class FacesViewContextImpl extends AbstractCustomContext implements ViewC
 		}
 		
 		/*
-		 * Tenta obter o viewID de forma não thread-safe por questões de performance.
-		 * Se o viewID não existe entra em um trecho thread-safe para incrementa-lo, evitando
-		 * conflito entre duas requests tentando incrementar esse número. 
+		 * Tenta obter o viewID e o store da sessão sem bloqueio, por questões de performance.
+		 * Só quando um deles ainda não existe entra em um trecho thread-safe para criá-lo. O bloqueio
+		 * é feito por sessão (dividido em LOCK_STRIPES travas), assim requests de usuários diferentes
+		 * não esperam umas pelas outras.
 		 */
 		Long viewId = (Long)Faces.getViewMap().get(FACES_KEY);
 		if (viewId==null){
-			synchronized (this) {
+			synchronized (getLock(session)) {
 				
 				//Tenta obte-lo novamente, caso entre a primeira tentativa e o bloqueio
 				//da thread outra thread já tenha criado o número. 
@@ -109,11 +126,9 @@ public class FacesViewContextImpl extends AbstractCustomContext implements ViewC
 			}
 		}
 		
-		//A mesma técnica de bloqueio de thread acima é usada aqui para
-		//criar um SessionBeanStore caso o mesmo ainda não exista.
 		FacesViewBeanStore currentStore = (FacesViewBeanStore) session.getAttribute(VIEW_STORE_KEY);
 		if (currentStore==null){
-			synchronized (this) {
+			synchronized (getLock(session)) {
 				currentStore = (FacesViewBeanStore) session.getAttribute(VIEW_STORE_KEY);
 				if (currentStore==null){
 					currentStore = new FacesViewBeanStore();
@@ -122,7 +137,14 @@ public class FacesViewContextImpl extends AbstractCustomContext implements ViewC
 			}
 		}
 
-		return currentStore.getStore(viewId, this);
+		BeanStore store = currentStore.getStore(viewId, session, this, getConfig().getMaxViews());
+
+		//A view só é marcada para replicação quando seus beans foram usados desde a última serialização.
+		if (!store.isChanged()){
+			session.setAttribute(FacesViewBeanStore.getViewKey(viewId), store);
+		}
+
+		return store;
 	}
 	
 	/*
@@ -134,11 +156,57 @@ public class FacesViewContextImpl extends AbstractCustomContext implements ViewC
 			FacesViewBeanStore store = (FacesViewBeanStore) session.getAttribute(VIEW_STORE_KEY);
 			if (store!=null){
 				session.removeAttribute(VIEW_STORE_KEY);
-				store.clear(this);
+				store.clear(session, this);
 			}
 		}
 	}
 	
+	/*
+	 * Chamados pelo FacesViewBeanStore quando uma view é descartada por exceder o limite
+	 * de views por sessão, e quando uma view descartada volta a ser usada.
+	 */
+	void viewEvicted(){
+		evictedViews.incrementAndGet();
+	}
+
+	void viewRebuilt(){
+		rebuiltViews.incrementAndGet();
+	}
+
+	/**
+	 * @return How many views had their beans destroyed because the session kept more views than allowed.
+	 */
+	public long getEvictedViews(){
+		return evictedViews.get();
+	}
+
+	/**
+	 * @return How many views had their beans created again after being evicted.
+	 */
+	public long getRebuiltViews(){
+		return rebuiltViews.get();
+	}
+
+	/**
+	 * @return The lock that serializes the creation of view IDs and stores of the given session. Sessions are spread
+	 *         over a fixed number of locks by the hash of their IDs, so requests of different sessions seldom wait
+	 *         for each other.
+	 */
+	protected Object getLock(HttpSession session){
+		int hash = session.getId().hashCode();
+		hash ^= (hash >>> 16);
+
+		return locks[hash & (LOCK_STRIPES - 1)];
+	}
+
+	private ViewScopeConfig getConfig(){
+		if (config==null){
+			config = Beans.getReference(ViewScopeConfig.class);
+		}
+
+		return config;
+	}
+	
 	private HttpSession getSession(){
 		return (HttpSession) FacesContext.getCurrentInstance().getExternalContext().getSession(true);
 	}
@@ -0,0 +1,113 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.internal.management;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty;
+import br.gov.frameworkdemoiselle.annotation.ManagedProperty.ManagedPropertyAccess;
+import br.gov.frameworkdemoiselle.context.CustomContext;
+import br.gov.frameworkdemoiselle.internal.bootstrap.CustomContextBootstrap;
+import br.gov.frameworkdemoiselle.internal.configuration.ContextConfig;
+import br.gov.frameworkdemoiselle.internal.configuration.ViewScopeConfig;
+import br.gov.frameworkdemoiselle.internal.context.FacesViewContextImpl;
+import br.gov.frameworkdemoiselle.internal.implementation.ConditionalManagedType;
+import br.gov.frameworkdemoiselle.stereotype.ManagementController;
+
+/**
+ * Exposes how often the view scoped beans of a session are destroyed because the session kept more views than
+ * allowed by <i>frameworkdemoiselle.scope.view.max.views</i>, and how often they are rebuilt afterwards. Registered
+ * only when the key <i>frameworkdemoiselle.context.monitoring.enabled</i> is <code>true</code>.
+ * 
+ * @author SERPRO
+ */
+@ManagementController(description = "View scope evictions")
+public class FacesViewMonitor implements ConditionalManagedType {
+
+	@Inject
+	private CustomContextBootstrap bootstrap;
+
+	@Inject
+	private ContextConfig contextConfig;
+
+	@Inject
+	private ViewScopeConfig viewScopeConfig;
+
+	@ManagedProperty(description = "Number of most recently used views kept in each session", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private int maxViews;
+
+	@ManagedProperty(description = "Number of views whose beans were destroyed to keep the limit of views", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long evictedViews;
+
+	@ManagedProperty(description = "Number of evicted views whose beans were created again", accessLevel = ManagedPropertyAccess.READ_ONLY)
+	private long rebuiltViews;
+
+	@Override
+	public boolean isManagementEnabled() {
+		return contextConfig.isMonitoringEnabled();
+	}
+
+	public int getMaxViews() {
+		return viewScopeConfig.getMaxViews();
+	}
+
+	public long getEvictedViews() {
+		FacesViewContextImpl context = getContext();
+		return context != null ? context.getEvictedViews() : 0;
+	}
+
+	public long getRebuiltViews() {
+		FacesViewContextImpl context = getContext();
+		return context != null ? context.getRebuiltViews() : 0;
+	}
+
+	private FacesViewContextImpl getContext() {
+		List<CustomContext> contexts = bootstrap.getCustomContexts();
+
+		if (contexts != null) {
+			for (CustomContext context : contexts) {
+				if (context instanceof FacesViewContextImpl) {
+					return (FacesViewContextImpl) context;
+				}
+			}
+		}
+
+		return null;
+	}
+}
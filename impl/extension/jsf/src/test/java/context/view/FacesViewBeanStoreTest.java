@@ -0,0 +1,177 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.servlet.http.HttpSession;
+
+import org.junit.Test;
+
+import br.gov.frameworkdemoiselle.internal.context.BeanStore;
+import br.gov.frameworkdemoiselle.internal.context.FacesViewBeanStore;
+import context.view.TestViewContext.CountingContextual;
+
+public class FacesViewBeanStoreTest {
+
+	private static final String VIEW_KEY = FacesViewBeanStore.class.getCanonicalName() + ".";
+
+	private static final int THREADS = 8;
+
+	private static final int ROUNDS = 2000;
+
+	@Test
+	public void mostRecentlyUsedViewsRetained() {
+		TestViewContext context = new TestViewContext();
+		HttpSession session = FakeSession.create("session");
+		FacesViewBeanStore views = new FacesViewBeanStore();
+
+		BeanStore first = views.getStore(1L, session, context, 2);
+		BeanStore second = views.getStore(2L, session, context, 2);
+
+		// A primeira view volta a ser a mais recente, então a segunda é a descartada.
+		assertSame(first, views.getStore(1L, session, context, 2));
+		views.getStore(3L, session, context, 2);
+
+		assertSame(first, views.getStore(1L, session, context, 2));
+		assertTrue(second.isClosed());
+		assertNull(session.getAttribute(VIEW_KEY + 2));
+		assertNotNull(session.getAttribute(VIEW_KEY + 1));
+		assertEquals(1, context.getEvictedViews());
+
+		BeanStore rebuilt = views.getStore(2L, session, context, 2);
+		assertNotSame(second, rebuilt);
+		assertEquals(1, context.getRebuiltViews());
+	}
+
+	@Test
+	public void evictionDestroysBeans() {
+		TestViewContext context = new TestViewContext();
+		HttpSession session = FakeSession.create("session");
+		FacesViewBeanStore views = new FacesViewBeanStore();
+		CountingContextual contextual = new CountingContextual();
+		int slot = context.getSlot(contextual);
+
+		BeanStore first = views.getStore(1L, session, context, 1);
+		first.getOrCreate(slot, contextual, null);
+		assertEquals(0, contextual.destroyed.get());
+
+		views.getStore(2L, session, context, 1).getOrCreate(slot, contextual, null);
+		assertEquals(1, contextual.destroyed.get());
+		assertFalse(first.contains(slot));
+
+		views.clear(session, context);
+		assertEquals(2, contextual.destroyed.get());
+		assertNull(session.getAttribute(VIEW_KEY + 2));
+	}
+
+	@Test
+	public void beanCreatedInEvictedViewDestroyed() {
+		TestViewContext context = new TestViewContext();
+		HttpSession session = FakeSession.create("session");
+		FacesViewBeanStore views = new FacesViewBeanStore();
+		CountingContextual contextual = new CountingContextual();
+		int slot = context.getSlot(contextual);
+
+		// Simula uma requisição que obteve o store antes de a view ser descartada por outra requisição.
+		BeanStore stale = views.getStore(1L, session, context, 1);
+		views.getStore(2L, session, context, 1);
+
+		assertNotNull(stale.getOrCreate(slot, contextual, null));
+		assertEquals(1, contextual.created.get());
+		assertEquals(1, contextual.destroyed.get());
+		assertFalse(stale.contains(slot));
+	}
+
+	@Test
+	public void concurrentEvictionLeavesNoBeanBehind() throws Exception {
+		final TestViewContext context = new TestViewContext();
+		final HttpSession session = FakeSession.create("session");
+		final FacesViewBeanStore views = new FacesViewBeanStore();
+		final CountingContextual contextual = new CountingContextual();
+		final int slot = context.getSlot(contextual);
+		final CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (int i = 0; i < THREADS; i++) {
+				final long firstView = i;
+
+				results.add(executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws Exception {
+						start.await();
+
+						for (int round = 0; round < ROUNDS; round++) {
+							Long viewId = (firstView + round) % 5;
+							views.getStore(viewId, session, context, 2).getOrCreate(slot, contextual, null);
+						}
+
+						return null;
+					}
+				}));
+			}
+
+			start.countDown();
+			for (Future<Void> result : results) {
+				result.get();
+			}
+
+		} finally {
+			executor.shutdown();
+		}
+
+		views.clear(session, context);
+		assertEquals(contextual.created.get(), contextual.destroyed.get());
+	}
+}
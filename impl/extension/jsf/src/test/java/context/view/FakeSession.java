@@ -0,0 +1,96 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.view;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpSession;
+
+/**
+ * Sessão em memória que implementa apenas o identificador e os atributos.
+ */
+final class FakeSession implements InvocationHandler {
+
+	private final String id;
+
+	private final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+
+	private FakeSession(String id) {
+		this.id = id;
+	}
+
+	static HttpSession create(String id) {
+		return (HttpSession) Proxy.newProxyInstance(FakeSession.class.getClassLoader(),
+				new Class<?>[] { HttpSession.class }, new FakeSession(id));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+
+		if ("getId".equals(name)) {
+			return id;
+
+		} else if ("getAttribute".equals(name)) {
+			return attributes.get(args[0]);
+
+		} else if ("setAttribute".equals(name)) {
+			if (args[1] == null) {
+				attributes.remove(args[0]);
+			} else {
+				attributes.put((String) args[0], args[1]);
+			}
+			return null;
+
+		} else if ("removeAttribute".equals(name)) {
+			attributes.remove(args[0]);
+			return null;
+
+		} else if ("hashCode".equals(name)) {
+			return System.identityHashCode(proxy);
+
+		} else if ("equals".equals(name)) {
+			return proxy == args[0];
+		}
+
+		throw new UnsupportedOperationException(name);
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package context.view;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpSession;
+
+import org.junit.Test;
+
+public class ViewLockStripesTest {
+
+	@Test
+	public void sameSessionSharesLock() {
+		TestViewContext context = new TestViewContext();
+
+		// O container pode entregar objetos diferentes para a mesma sessão.
+		assertSame(context.getLock(FakeSession.create("session")), context.getLock(FakeSession.create("session")));
+	}
+
+	@Test
+	public void differentSessionsDoNotBlockEachOther() throws Exception {
+		TestViewContext context = new TestViewContext();
+		HttpSession first = FakeSession.create("session-0");
+		HttpSession second = findSessionInOtherStripe(context, first);
+
+		Holder holder = new Holder(context.getLock(first));
+		holder.start();
+		assertTrue(holder.locked.await(10, TimeUnit.SECONDS));
+
+		try {
+			Waiter waiter = new Waiter(context.getLock(second));
+			waiter.start();
+
+			assertTrue(waiter.locked.await(10, TimeUnit.SECONDS));
+			waiter.join();
+
+		} finally {
+			holder.release.countDown();
+			holder.join();
+		}
+	}
+
+	@Test
+	public void sameSessionSerialized() throws Exception {
+		TestViewContext context = new TestViewContext();
+
+		Holder holder = new Holder(context.getLock(FakeSession.create("session")));
+		holder.start();
+		assertTrue(holder.locked.await(10, TimeUnit.SECONDS));
+
+		Waiter waiter = new Waiter(context.getLock(FakeSession.create("session")));
+		try {
+			waiter.start();
+			assertFalse(waiter.locked.await(200, TimeUnit.MILLISECONDS));
+
+		} finally {
+			holder.release.countDown();
+			holder.join();
+		}
+
+		assertTrue(waiter.locked.await(10, TimeUnit.SECONDS));
+		waiter.join();
+	}
+
+	private static HttpSession findSessionInOtherStripe(TestViewContext context, HttpSession session) {
+		Object lock = context.getLock(session);
+
+		for (int i = 1;; i++) {
+			HttpSession other = FakeSession.create("session-" + i);
+
+			if (context.getLock(other) != lock) {
+				return other;
+			}
+		}
+	}
+
+	/*
+	 * Mantém o bloqueio até ser liberada, como uma requisição demorada criando o store da sessão.
+	 */
+	private static class Holder extends Thread {
+
+		private final Object lock;
+
+		private final CountDownLatch locked = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private Holder(Object lock) {
+			this.lock = lock;
+		}
+
+		@Override
+		public void run() {
+			synchronized (lock) {
+				locked.countDown();
+
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException cause) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	private static class Waiter extends Thread {
+
+		private final Object lock;
+
+		private final CountDownLatch locked = new CountDownLatch(1);
+
+		private Waiter(Object lock) {
+			this.lock = lock;
+		}
+
+		@Override
+		public void run() {
+			synchronized (lock) {
+				locked.countDown();
+			}
+		}
+	}
+}
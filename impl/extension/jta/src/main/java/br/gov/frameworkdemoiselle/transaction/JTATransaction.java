@@ -37,16 +37,28 @@
 package br.gov.frameworkdemoiselle.transaction;
 
 import static br.gov.frameworkdemoiselle.annotation.Priority.L3_PRIORITY;
+import static javax.transaction.Status.STATUS_COMMITTED;
 import static javax.transaction.Status.STATUS_MARKED_ROLLBACK;
 import static javax.transaction.Status.STATUS_NO_TRANSACTION;
 import static javax.transaction.Status.STATUS_ROLLEDBACK;
 
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.transaction.UserTransaction;
 
 import br.gov.frameworkdemoiselle.DemoiselleException;
 import br.gov.frameworkdemoiselle.annotation.Priority;
+import br.gov.frameworkdemoiselle.internal.implementation.SynchronizationDispatcher;
 import br.gov.frameworkdemoiselle.util.Beans;
+import br.gov.frameworkdemoiselle.util.NameQualifier;
+import br.gov.frameworkdemoiselle.util.ResourceBundle;
 /**
  * Delegates the transaction control to a JEE container.
  * 
@@ -54,12 +66,27 @@ import br.gov.frameworkdemoiselle.util.Beans;
  *
  */
 @Priority(L3_PRIORITY)
-public class JTATransaction implements Transaction {
+public class JTATransaction implements SuspendableTransaction, SynchronizationCapableTransaction {
 
 	private static final long serialVersionUID = 1L;
 
+	/*
+	 * Nomes JNDI do TransactionManager nos servidores mais comuns: GlassFish, JBoss/WildFly, WebLogic e TomEE.
+	 */
+	private static final String[] TRANSACTION_MANAGER_NAMES = { "java:appserver/TransactionManager",
+			"java:/TransactionManager", "java:jboss/TransactionManager", "javax.transaction.TransactionManager",
+			"java:comp/TransactionManager" };
+
+	private static final String SYNCHRONIZATION_REGISTRY_NAME = "java:comp/TransactionSynchronizationRegistry";
+
 	private UserTransaction delegate;
 
+	private transient TransactionSynchronizationRegistry synchronizationRegistry;
+
+	private transient TransactionManager transactionManager;
+
+	private transient ResourceBundle bundle;
+
 	private UserTransaction getDelegate() {
 		if (delegate == null) {
 			delegate = Beans.getReference(UserTransaction.class);
@@ -68,6 +95,60 @@ public class JTATransaction implements Transaction {
 		return delegate;
 	}
 
+	private TransactionManager getTransactionManager() {
+		if (transactionManager == null) {
+			try {
+				InitialContext context = new InitialContext();
+
+				for (String name : TRANSACTION_MANAGER_NAMES) {
+					try {
+						Object found = context.lookup(name);
+
+						if (found instanceof TransactionManager) {
+							transactionManager = (TransactionManager) found;
+							break;
+						}
+
+					} catch (NamingException cause) {
+						// Tenta o próximo nome.
+					}
+				}
+
+			} catch (NamingException cause) {
+				throw new TransactionException(cause);
+			}
+
+			if (transactionManager == null) {
+				throw new TransactionException(getBundle().getString("transaction-manager-lookup-fail",
+						Arrays.toString(TRANSACTION_MANAGER_NAMES)));
+			}
+		}
+
+		return transactionManager;
+	}
+
+	private TransactionSynchronizationRegistry getSynchronizationRegistry() {
+		if (synchronizationRegistry == null) {
+			try {
+				synchronizationRegistry = (TransactionSynchronizationRegistry) new InitialContext()
+						.lookup(SYNCHRONIZATION_REGISTRY_NAME);
+
+			} catch (NamingException cause) {
+				throw new TransactionException(cause);
+			}
+		}
+
+		return synchronizationRegistry;
+	}
+
+	private ResourceBundle getBundle() {
+		if (bundle == null) {
+			bundle = Beans.getReference(ResourceBundle.class, new NameQualifier("demoiselle-jta-bundle"));
+		}
+
+		return bundle;
+	}
+
 	/**
 	 * @throws DemoiselleException
 	 */
@@ -146,4 +227,77 @@ public class JTATransaction implements Transaction {
 			throw new TransactionException(cause);
 		}
 	}
+
+	/**
+	 * Suspends the running transaction through the {@link TransactionManager} of the server, which is not available to
+	 * applications through injection and is looked up at the usual JNDI names.
+	 * 
+	 * @throws DemoiselleException
+	 */
+	@Override
+	public Object suspend() {
+		try {
+			return getTransactionManager().suspend();
+
+		} catch (SystemException cause) {
+			throw new TransactionException(cause);
+		}
+	}
+
+	/**
+	 * @throws DemoiselleException
+	 */
+	@Override
+	public void resume(Object suspended) {
+		try {
+			getTransactionManager().resume((javax.transaction.Transaction) suspended);
+
+		} catch (Exception cause) {
+			throw new TransactionException(cause);
+		}
+	}
+
+	/**
+	 * Registers the synchronization in the synchronization registry of the server, which calls it when the
+	 * transaction completes, whoever completes it. JTA only calls the <code>beforeCompletion</code> of interposed
+	 * synchronizations after the ones registered directly in the transaction. Persistence providers may register
+	 * themselves either way, and the order among interposed synchronizations is not defined, so the synchronization
+	 * must not rely on the entity managers being flushed, neither before nor after the completion.
+	 * 
+	 * @throws DemoiselleException
+	 */
+	@Override
+	public void registerSynchronization(TransactionSynchronization synchronization) {
+		try {
+			getSynchronizationRegistry().registerInterposedSynchronization(
+					new SynchronizationAdapter(synchronization));
+
+		} catch (IllegalStateException cause) {
+			throw new TransactionException(cause);
+		}
+	}
+
+	/*
+	 * Adapta a sincronização do Demoiselle à interface do JTA, delegando ao SynchronizationDispatcher a chamada após o
+	 * término para respeitar a execução assíncrona configurada.
+	 */
+	private static class SynchronizationAdapter implements Synchronization {
+
+		private final TransactionSynchronization synchronization;
+
+		public SynchronizationAdapter(TransactionSynchronization synchronization) {
+			this.synchronization = synchronization;
+		}
+
+		@Override
+		public void beforeCompletion() {
+			synchronization.beforeCompletion();
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			Beans.getReference(SynchronizationDispatcher.class).afterCompletion(
+					Collections.singletonList(synchronization), status == STATUS_COMMITTED);
+		}
+	}
 }
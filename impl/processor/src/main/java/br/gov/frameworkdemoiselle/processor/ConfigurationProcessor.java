@@ -0,0 +1,550 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package br.gov.frameworkdemoiselle.processor;
+
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PROTECTED;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Annotation processor that generates, for every top level class annotated with
+ * <code>br.gov.frameworkdemoiselle.configuration.Configuration</code>, two classes in the package of the configuration
+ * class:
+ * <ul>
+ * <li><code>Foo_$$_DemoiselleIndex</code>, an implementation of
+ * <code>br.gov.frameworkdemoiselle.internal.implementation.ConfigurationIndex</code> listing the resource, the prefix
+ * and the key of every field, with accessors that read and write the fields without reflection;</li>
+ * <li><code>Foo_$$_DemoiselleProxy</code>, the proxy registered as the bean of the configuration class, which the
+ * framework would otherwise generate with javassist when the application is deployed.</li>
+ * </ul>
+ * The framework falls back to the runtime behaviour for the classes without generated code, so the processor can be
+ * added to or removed from a build at any time. The processor only depends on the JDK: the framework types are
+ * referred to by name.
+ * 
+ * @author SERPRO
+ */
+@SupportedAnnotationTypes(ConfigurationProcessor.CONFIGURATION)
+public class ConfigurationProcessor extends AbstractProcessor {
+
+	static final String CONFIGURATION = "br.gov.frameworkdemoiselle.configuration.Configuration";
+
+	static final String NAME = "br.gov.frameworkdemoiselle.annotation.Name";
+
+	static final String IGNORE = "br.gov.frameworkdemoiselle.annotation.Ignore";
+
+	static final String CONFIG_TYPE = "br.gov.frameworkdemoiselle.configuration.ConfigType";
+
+	static final String INDEX = "br.gov.frameworkdemoiselle.internal.implementation.ConfigurationIndex";
+
+	static final String INDEX_SUFFIX = "_$$_DemoiselleIndex";
+
+	static final String PROXY_SUFFIX = "_$$_DemoiselleProxy";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		TypeElement configuration = getElements().getTypeElement(CONFIGURATION);
+
+		if (configuration != null) {
+			for (Element element : round.getElementsAnnotatedWith(configuration)) {
+				// O proxy gerado herda @Configuration e não deve ser processado na rodada seguinte.
+				if (element.getKind() == ElementKind.CLASS
+						&& element.getEnclosingElement().getKind() == ElementKind.PACKAGE
+						&& !element.getModifiers().contains(ABSTRACT)
+						&& !element.getSimpleName().toString().endsWith(PROXY_SUFFIX)) {
+					process((TypeElement) element);
+				}
+			}
+		}
+
+		// A anotação continua disponível para outros processadores.
+		return false;
+	}
+
+	private void process(TypeElement type) {
+		List<VariableElement> fields = getNonStaticFields(type);
+
+		if (!validateFields(fields)) {
+			return;
+		}
+
+		try {
+			writeIndex(type, fields);
+
+			if (isProxiable(type)) {
+				writeProxy(type);
+			}
+
+		} catch (IOException cause) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Could not generate the configuration classes: " + cause.getMessage(), type);
+		}
+	}
+
+	/*
+	 * Mesma ordem de Reflections.getNonStaticFields: os campos da classe e depois os de cada superclasse.
+	 */
+	private List<VariableElement> getNonStaticFields(TypeElement type) {
+		List<VariableElement> fields = new ArrayList<VariableElement>();
+		TypeElement current = type;
+
+		while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+			for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				if (!field.getModifiers().contains(STATIC)) {
+					fields.add(field);
+				}
+			}
+
+			TypeMirror superclass = current.getSuperclass();
+			current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement()
+					: null;
+		}
+
+		return fields;
+	}
+
+	private boolean validateFields(List<VariableElement> fields) {
+		boolean valid = true;
+
+		for (VariableElement field : fields) {
+			AnnotationMirror name = getAnnotation(field.getAnnotationMirrors(), NAME);
+
+			if (name != null && getValue(name, "value").toString().length() == 0) {
+				processingEnv.getMessager().printMessage(Kind.ERROR, "The @Name annotation can't be empty", field,
+						name);
+				valid = false;
+			}
+		}
+
+		return valid;
+	}
+
+	private boolean isProxiable(TypeElement type) {
+		if (type.getModifiers().contains(FINAL) || !type.getTypeParameters().isEmpty()) {
+			return false;
+		}
+
+		boolean constructor = false;
+		for (ExecutableElement element : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (element.getParameters().isEmpty() && element.getThrownTypes().isEmpty()
+					&& !element.getModifiers().contains(PRIVATE)) {
+				constructor = true;
+			}
+		}
+
+		if (!constructor) {
+			return false;
+		}
+
+		// Métodos genéricos ficam para o proxy gerado em tempo de execução.
+		for (ExecutableElement method : getProxiedMethods(type)) {
+			if (!method.getTypeParameters().isEmpty()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void writeIndex(TypeElement type, List<VariableElement> fields) throws IOException {
+		AnnotationMirror annotation = getAnnotation(getElements().getAllAnnotationMirrors(type), CONFIGURATION);
+		PackageElement pkg = getElements().getPackageOf(type);
+		String name = type.getSimpleName() + INDEX_SUFFIX;
+
+		StringBuilder names = new StringBuilder();
+		StringBuilder declaringClasses = new StringBuilder();
+		StringBuilder keys = new StringBuilder();
+		StringBuilder accessible = new StringBuilder();
+		StringBuilder getters = new StringBuilder();
+		StringBuilder setters = new StringBuilder();
+
+		for (int i = 0; i < fields.size(); i++) {
+			VariableElement field = fields.get(i);
+			TypeElement declaringClass = (TypeElement) field.getEnclosingElement();
+			String separator = i == 0 ? "" : ", ";
+
+			names.append(separator).append(literal(field.getSimpleName().toString()));
+			declaringClasses.append(separator).append(
+					literal(getElements().getBinaryName(declaringClass).toString()));
+			String key = getKey(field);
+			keys.append(separator).append(key == null ? "null" : literal(key));
+
+			if (key != null && isAccessible(field, pkg)) {
+				String access = "((" + getTypes().erasure(declaringClass.asType()) + ") instance)."
+						+ field.getSimpleName();
+
+				accessible.append(separator).append("true");
+				getters.append("\t\t\tcase " + i + ":\n\t\t\t\treturn " + access + ";\n");
+				setters.append("\t\t\tcase " + i + ":\n\t\t\t\t" + access + " = " + getCast(field.asType())
+						+ "value;\n\t\t\t\tbreak;\n");
+
+			} else {
+				accessible.append(separator).append("false");
+			}
+		}
+
+		StringBuilder source = new StringBuilder();
+		appendHeader(source, pkg);
+		source.append("public final class " + name + " implements " + INDEX + " {\n\n");
+		source.append("\tprivate static final boolean[] ACCESSIBLE = { " + accessible + " };\n\n");
+		source.append("\tpublic " + CONFIG_TYPE + " getType() {\n");
+		source.append("\t\treturn " + CONFIG_TYPE + "." + getValue(annotation, "type") + ";\n\t}\n\n");
+		source.append("\tpublic String getResource() {\n");
+		source.append("\t\treturn " + literal(getValue(annotation, "resource").toString()) + ";\n\t}\n\n");
+		source.append("\tpublic String getPrefix() {\n");
+		source.append("\t\treturn " + literal(getValue(annotation, "prefix").toString()) + ";\n\t}\n\n");
+		source.append("\tpublic String[] getFieldNames() {\n");
+		source.append("\t\treturn new String[] { " + names + " };\n\t}\n\n");
+		source.append("\tpublic String[] getDeclaringClassNames() {\n");
+		source.append("\t\treturn new String[] { " + declaringClasses + " };\n\t}\n\n");
+		source.append("\tpublic String[] getKeys() {\n");
+		source.append("\t\treturn new String[] { " + keys + " };\n\t}\n\n");
+		source.append("\tpublic boolean isAccessible(int field) {\n");
+		source.append("\t\treturn ACCESSIBLE[field];\n\t}\n\n");
+		source.append("\tpublic Object getValue(Object instance, int field) {\n");
+		source.append("\t\tswitch (field) {\n" + getters);
+		source.append("\t\t\tdefault:\n\t\t\t\tthrow new IllegalArgumentException(String.valueOf(field));\n");
+		source.append("\t\t}\n\t}\n\n");
+		source.append("\t@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+		source.append("\tpublic void setValue(Object instance, int field, Object value) {\n");
+		source.append("\t\tswitch (field) {\n" + setters);
+		source.append("\t\t\tdefault:\n\t\t\t\tthrow new IllegalArgumentException(String.valueOf(field));\n");
+		source.append("\t\t}\n\t}\n}\n");
+
+		write(getQualifiedName(pkg, name), source, type);
+	}
+
+	private String getKey(VariableElement field) {
+		List<? extends AnnotationMirror> annotations = field.getAnnotationMirrors();
+
+		if (getAnnotation(annotations, IGNORE) != null) {
+			return null;
+		}
+
+		AnnotationMirror name = getAnnotation(annotations, NAME);
+		return name == null ? field.getSimpleName().toString() : getValue(name, "value").toString();
+	}
+
+	/*
+	 * O índice só acessa diretamente os campos visíveis a partir do pacote da classe de configuração e que podem ser
+	 * atribuídos. Os demais (privados, finais ou protegidos de outro pacote) continuam sendo acessados por reflexão.
+	 */
+	private boolean isAccessible(VariableElement field, PackageElement pkg) {
+		return !field.getModifiers().contains(FINAL) && isVisible(field, pkg);
+	}
+
+	private boolean isVisible(Element element, PackageElement pkg) {
+		Set<javax.lang.model.element.Modifier> modifiers = element.getModifiers();
+
+		if (modifiers.contains(PRIVATE) || !modifiers.contains(PUBLIC)
+				&& !getElements().getPackageOf(element).equals(pkg)) {
+			return false;
+		}
+
+		Element enclosing = element.getEnclosingElement();
+		return enclosing.getKind() == ElementKind.PACKAGE || isVisible(enclosing, pkg);
+	}
+
+	private String getCast(TypeMirror type) {
+		String name;
+
+		if (type.getKind().isPrimitive()) {
+			name = getTypes().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		} else {
+			name = getTypes().erasure(type).toString();
+		}
+
+		return Object.class.getName().equals(name) ? "" : "(" + name + ") ";
+	}
+
+	private void writeProxy(TypeElement type) throws IOException {
+		PackageElement pkg = getElements().getPackageOf(type);
+		String name = type.getSimpleName() + PROXY_SUFFIX;
+		String superclass = type.getQualifiedName().toString();
+
+		StringBuilder source = new StringBuilder();
+		appendHeader(source, pkg);
+		source.append("public class " + name + " extends " + superclass + " implements\n");
+		source.append("\t\tbr.gov.frameworkdemoiselle.internal.implementation.LoadableConfiguration,\n");
+		source.append("\t\tbr.gov.frameworkdemoiselle.internal.implementation.ReloadableConfiguration,\n");
+		source.append("\t\tjava.io.Serializable {\n\n");
+		source.append("\tprivate static final long serialVersionUID = 1L;\n\n");
+		source.append("\t@" + IGNORE + "\n\tprivate volatile boolean $$loaded = false;\n\n");
+		source.append("\t@" + IGNORE + "\n\tprivate transient boolean $$loading = false;\n\n");
+		source.append("\t@" + IGNORE + "\n\tprivate transient volatile Object $$current;\n\n");
+
+		// Mesmo comportamento de ConfigurationImpl, o modelo dos proxies gerados em tempo de execução.
+		source.append("\tprivate synchronized void $$load() {\n");
+		source.append("\t\tif (!$$loaded && !$$loading) {\n");
+		source.append("\t\t\t$$loading = true;\n\n");
+		source.append("\t\t\ttry {\n");
+		source.append("\t\t\t\tbr.gov.frameworkdemoiselle.internal.implementation.ConfigurationLoader loader = "
+				+ "br.gov.frameworkdemoiselle.util.Beans\n");
+		source.append("\t\t\t\t\t\t.getReference(br.gov.frameworkdemoiselle.internal.implementation."
+				+ "ConfigurationLoader.class);\n");
+		source.append("\t\t\t\tloader.load(this);\n");
+		source.append("\t\t\t\t$$loaded = true;\n\n");
+		source.append("\t\t\t\tbr.gov.frameworkdemoiselle.util.Beans.getReference(\n");
+		source.append("\t\t\t\t\t\tbr.gov.frameworkdemoiselle.internal.implementation.ConfigurationReloader.class)"
+				+ ".register(this, loader);\n\n");
+		source.append("\t\t\t} finally {\n");
+		source.append("\t\t\t\t$$loading = false;\n");
+		source.append("\t\t\t}\n\t\t}\n\t}\n\n");
+		source.append("\t@Override\n\tpublic void ensureLoaded() {\n");
+		source.append("\t\tif (!$$loaded) {\n\t\t\t$$load();\n\t\t}\n\t}\n\n");
+		source.append("\t@Override\n\tpublic void setCurrentInstance(Object instance) {\n");
+		source.append("\t\tthis.$$current = instance;\n\t}\n\n");
+		source.append("\tprivate void readObject(java.io.ObjectInputStream in) throws java.io.IOException, "
+				+ "ClassNotFoundException {\n");
+		source.append("\t\tin.defaultReadObject();\n");
+		source.append("\t\t$$loaded = false;\n\t}\n");
+
+		for (ExecutableElement method : getProxiedMethods(type)) {
+			appendMethod(source, type, pkg, method);
+		}
+
+		source.append("}\n");
+
+		write(getQualifiedName(pkg, name), source, type);
+	}
+
+	/*
+	 * Os mesmos métodos que ConfigurationBootstrap sobrescreve com javassist: os métodos de instância que o proxy pode
+	 * sobrescrever, declarados na classe de configuração ou nas suas superclasses, exceto em Object.
+	 */
+	private List<ExecutableElement> getProxiedMethods(TypeElement type) {
+		List<ExecutableElement> candidates = new ArrayList<ExecutableElement>();
+		PackageElement pkg = getElements().getPackageOf(type);
+
+		for (ExecutableElement method : ElementFilter.methodsIn(getElements().getAllMembers(type))) {
+			Element declaringClass = method.getEnclosingElement();
+			Set<javax.lang.model.element.Modifier> modifiers = method.getModifiers();
+
+			if (declaringClass.getKind() != ElementKind.CLASS
+					|| ((TypeElement) declaringClass).getQualifiedName().contentEquals(Object.class.getName())
+					|| modifiers.contains(STATIC) || modifiers.contains(PRIVATE) || modifiers.contains(FINAL)
+					|| modifiers.contains(ABSTRACT)) {
+				continue;
+			}
+
+			if (!modifiers.contains(PUBLIC) && !modifiers.contains(PROTECTED)
+					&& !getElements().getPackageOf(method).equals(pkg)) {
+				continue;
+			}
+
+			candidates.add(method);
+		}
+
+		for (Iterator<ExecutableElement> iter = candidates.iterator(); iter.hasNext();) {
+			ExecutableElement method = iter.next();
+
+			for (ExecutableElement other : candidates) {
+				if (other != method && getElements().overrides(other, method, type)) {
+					iter.remove();
+					break;
+				}
+			}
+		}
+
+		return candidates;
+	}
+
+	private void appendMethod(StringBuilder source, TypeElement type, PackageElement pkg, ExecutableElement method) {
+		ExecutableType signature = (ExecutableType) getTypes().asMemberOf((DeclaredType) type.asType(), method);
+		Set<javax.lang.model.element.Modifier> modifiers = method.getModifiers();
+		boolean returns = signature.getReturnType().getKind() != TypeKind.VOID;
+
+		StringBuilder parameters = new StringBuilder();
+		StringBuilder arguments = new StringBuilder();
+		List<? extends VariableElement> elements = method.getParameters();
+		List<? extends TypeMirror> types = signature.getParameterTypes();
+
+		for (int i = 0; i < elements.size(); i++) {
+			String separator = i == 0 ? "" : ", ";
+			TypeMirror parameterType = types.get(i);
+			String typeName;
+
+			if (method.isVarArgs() && i == elements.size() - 1) {
+				typeName = ((ArrayType) parameterType).getComponentType() + "...";
+			} else {
+				typeName = parameterType.toString();
+			}
+
+			parameters.append(separator).append(typeName).append(" ").append(elements.get(i).getSimpleName());
+			arguments.append(separator).append(elements.get(i).getSimpleName());
+		}
+
+		StringBuilder thrown = new StringBuilder();
+		for (TypeMirror thrownType : signature.getThrownTypes()) {
+			thrown.append(thrown.length() == 0 ? " throws " : ", ").append(thrownType);
+		}
+
+		String call = method.getSimpleName() + "(" + arguments + ")";
+		String visibility = modifiers.contains(PUBLIC) ? "public " : modifiers.contains(PROTECTED) ? "protected " : "";
+
+		source.append("\n\t@Override\n");
+		source.append("\t" + visibility + signature.getReturnType() + " " + method.getSimpleName() + "(" + parameters
+				+ ")" + thrown + " {\n");
+		source.append("\t\tif (!$$loaded) {\n\t\t\t$$load();\n\t\t}\n\n");
+
+		// O proxy fica no pacote da classe de configuração e alcança os métodos públicos e os declarados nesse pacote.
+		if (modifiers.contains(PUBLIC) || getElements().getPackageOf(method).equals(pkg)) {
+			String redirect = "((" + type.getQualifiedName() + ") $$instance)." + call;
+
+			source.append("\t\tObject $$instance = this.$$current;\n");
+			source.append("\t\tif ($$instance != null) {\n");
+			source.append(returns ? "\t\t\treturn " + redirect + ";\n" : "\t\t\t" + redirect + ";\n\t\t\treturn;\n");
+			source.append("\t\t}\n\n");
+		}
+
+		source.append("\t\t" + (returns ? "return " : "") + "super." + call + ";\n\t}\n");
+	}
+
+	private void appendHeader(StringBuilder source, PackageElement pkg) {
+		source.append("// Generated by " + getClass().getName() + ". Do not edit.\n");
+
+		if (!pkg.isUnnamed()) {
+			source.append("package " + pkg.getQualifiedName() + ";\n");
+		}
+
+		source.append("\n");
+	}
+
+	private void write(String name, StringBuilder source, TypeElement origin) throws IOException {
+		Writer writer = processingEnv.getFiler().createSourceFile(name, origin).openWriter();
+
+		try {
+			writer.write(source.toString());
+
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static String getQualifiedName(PackageElement pkg, String name) {
+		return pkg.isUnnamed() ? name : pkg.getQualifiedName() + "." + name;
+	}
+
+	private static AnnotationMirror getAnnotation(List<? extends AnnotationMirror> annotations, String name) {
+		for (AnnotationMirror annotation : annotations) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+
+			if (annotationType.getQualifiedName().contentEquals(name)) {
+				return annotation;
+			}
+		}
+
+		return null;
+	}
+
+	private Object getValue(AnnotationMirror annotation, String name) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : getElements()
+				.getElementValuesWithDefaults(annotation).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) {
+				Object value = entry.getValue().getValue();
+				return value instanceof VariableElement ? ((VariableElement) value).getSimpleName() : value;
+			}
+		}
+
+		return null;
+	}
+
+	static String literal(String value) {
+		StringBuilder result = new StringBuilder("\"");
+
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < ' ') {
+				// Escapes unicode de quebras de linha seriam traduzidos antes da análise do literal.
+				result.append(String.format("\\%03o", (int) c));
+			} else if (c > '~') {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+
+		return result.append('"').toString();
+	}
+
+	private Elements getElements() {
+		return processingEnv.getElementUtils();
+	}
+
+	private Types getTypes() {
+		return processingEnv.getTypeUtils();
+	}
+}
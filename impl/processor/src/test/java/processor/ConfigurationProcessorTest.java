@@ -0,0 +1,220 @@
+/*
+ * Demoiselle Framework
+ * Copyright (C) 2010 SERPRO
+ * ----------------------------------------------------------------------------
+ * This file is part of Demoiselle Framework.
+ * 
+ * Demoiselle Framework is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License version 3
+ * along with this program; if not,  see <http://www.gnu.org/licenses/>
+ * or write to the Free Software Foundation, Inc., 51 Franklin Street,
+ * Fifth Floor, Boston, MA  02110-1301, USA.
+ * ----------------------------------------------------------------------------
+ * Este arquivo é parte do Framework Demoiselle.
+ * 
+ * O Framework Demoiselle é um software livre; você pode redistribuí-lo e/ou
+ * modificá-lo dentro dos termos da GNU LGPL versão 3 como publicada pela Fundação
+ * do Software Livre (FSF).
+ * 
+ * Este programa é distribuído na esperança que possa ser útil, mas SEM NENHUMA
+ * GARANTIA; sem uma garantia implícita de ADEQUAÇÃO a qualquer MERCADO ou
+ * APLICAÇÃO EM PARTICULAR. Veja a Licença Pública Geral GNU/LGPL em português
+ * para maiores detalhes.
+ * 
+ * Você deve ter recebido uma cópia da GNU LGPL versão 3, sob o título
+ * "LICENCA.txt", junto com esse programa. Se não, acesse <http://www.gnu.org/licenses/>
+ * ou escreva para a Fundação do Software Livre (FSF) Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02111-1301, USA.
+ */
+package processor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.gov.frameworkdemoiselle.configuration.ConfigType;
+import br.gov.frameworkdemoiselle.internal.implementation.ConfigurationIndex;
+import br.gov.frameworkdemoiselle.internal.implementation.LoadableConfiguration;
+import br.gov.frameworkdemoiselle.internal.implementation.ReloadableConfiguration;
+import br.gov.frameworkdemoiselle.processor.ConfigurationProcessor;
+
+public class ConfigurationProcessorTest {
+
+	private static final String SAMPLE = "package sample;\n"
+			+ "import br.gov.frameworkdemoiselle.annotation.*;\n"
+			+ "import br.gov.frameworkdemoiselle.configuration.*;\n"
+			+ "@Configuration(resource = \"sample\", prefix = \"sample\", type = ConfigType.XML)\n"
+			+ "public class Sample extends Base {\n"
+			+ "	@Name(\"the.port\") int port = 80;\n"
+			+ "	private String secret;\n"
+			+ "	@Ignore String ignored;\n"
+			+ "	public int getPort() { return port; }\n"
+			+ "	public String getSecret() { return secret; }\n"
+			+ "}\n";
+
+	private static final String BASE = "package sample;\n"
+			+ "public class Base {\n"
+			+ "	protected String host;\n"
+			+ "	public String getHost() { return host; }\n"
+			+ "}\n";
+
+	private static final String GENERIC = "package sample;\n"
+			+ "@br.gov.frameworkdemoiselle.configuration.Configuration\n"
+			+ "public class Generic {\n"
+			+ "	String name;\n"
+			+ "	public <T> T get(Class<T> type) { return null; }\n"
+			+ "}\n";
+
+	private static final String EMPTY_NAME = "package sample;\n"
+			+ "@br.gov.frameworkdemoiselle.configuration.Configuration\n"
+			+ "public class EmptyName {\n"
+			+ "	@br.gov.frameworkdemoiselle.annotation.Name(\"\") String name;\n"
+			+ "}\n";
+
+	private File output;
+
+	private DiagnosticCollector<JavaFileObject> diagnostics;
+
+	@Before
+	public void setUp() throws IOException {
+		output = File.createTempFile("demoiselle-processor", "");
+		output.delete();
+		output.mkdirs();
+		diagnostics = new DiagnosticCollector<JavaFileObject>();
+	}
+
+	@Test
+	public void indexListsKeysAndAccessors() throws Exception {
+		assertTrue(compile(source("Sample", SAMPLE), source("Base", BASE)));
+
+		ClassLoader loader = createClassLoader();
+		ConfigurationIndex index = (ConfigurationIndex) loader.loadClass(
+				"sample.Sample" + ConfigurationIndex.INDEX_SUFFIX).newInstance();
+
+		assertEquals(ConfigType.XML, index.getType());
+		assertEquals("sample", index.getResource());
+		assertEquals("sample", index.getPrefix());
+		assertEquals(Arrays.asList("port", "secret", "ignored", "host"), Arrays.asList(index.getFieldNames()));
+		assertEquals(Arrays.asList("sample.Sample", "sample.Sample", "sample.Sample", "sample.Base"),
+				Arrays.asList(index.getDeclaringClassNames()));
+		assertEquals(Arrays.asList("the.port", "secret", null, "host"), Arrays.asList(index.getKeys()));
+
+		assertTrue(index.isAccessible(0));
+		assertFalse(index.isAccessible(1));
+		assertFalse(index.isAccessible(2));
+		assertTrue(index.isAccessible(3));
+
+		Object instance = loader.loadClass("sample.Sample").newInstance();
+		assertEquals(80, index.getValue(instance, 0));
+
+		index.setValue(instance, 0, 8080);
+		index.setValue(instance, 3, "localhost");
+		assertEquals(8080, instance.getClass().getMethod("getPort").invoke(instance));
+		assertEquals("localhost", instance.getClass().getMethod("getHost").invoke(instance));
+	}
+
+	@Test
+	public void proxyGenerated() throws Exception {
+		assertTrue(compile(source("Sample", SAMPLE), source("Base", BASE)));
+
+		ClassLoader loader = createClassLoader();
+		Class<?> type = loader.loadClass("sample.Sample");
+		Class<?> proxy = loader.loadClass("sample.Sample" + ConfigurationIndex.PROXY_SUFFIX);
+
+		assertSame(type, proxy.getSuperclass());
+		assertTrue(LoadableConfiguration.class.isAssignableFrom(proxy));
+		assertTrue(ReloadableConfiguration.class.isAssignableFrom(proxy));
+		assertSame(proxy, proxy.getDeclaredMethod("getPort").getDeclaringClass());
+		assertSame(proxy, proxy.getDeclaredMethod("getHost").getDeclaringClass());
+	}
+
+	@Test
+	public void proxyNotGeneratedForGenericMethods() throws Exception {
+		assertTrue(compile(source("Generic", GENERIC)));
+
+		assertTrue(new File(output, "sample/Generic" + ConfigurationIndex.INDEX_SUFFIX + ".class").exists());
+		assertFalse(new File(output, "sample/Generic" + ConfigurationIndex.PROXY_SUFFIX + ".class").exists());
+	}
+
+	@Test
+	public void emptyNameRejected() throws Exception {
+		assertFalse(compile(source("EmptyName", EMPTY_NAME)));
+
+		Diagnostic<? extends JavaFileObject> error = null;
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+				error = diagnostic;
+			}
+		}
+
+		assertTrue(error.getMessage(null).contains("@Name"));
+		assertNull(createClassLoader().getResource("sample/EmptyName" + ConfigurationIndex.INDEX_SUFFIX + ".class"));
+	}
+
+	private boolean compile(JavaFileObject... sources) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		StandardJavaFileManager manager = compiler.getStandardFileManager(diagnostics, null, null);
+
+		List<String> options = new ArrayList<String>();
+		options.add("-d");
+		options.add(output.getAbsolutePath());
+		options.add("-s");
+		options.add(output.getAbsolutePath());
+		options.add("-classpath");
+		options.add(System.getProperty("java.class.path"));
+
+		try {
+			CompilationTask task = compiler.getTask(null, manager, diagnostics, options, null, Arrays.asList(sources));
+			task.setProcessors(Arrays.asList(new ConfigurationProcessor()));
+			return task.call();
+
+		} finally {
+			manager.close();
+		}
+	}
+
+	private ClassLoader createClassLoader() throws IOException {
+		return new URLClassLoader(new URL[] { output.toURI().toURL() }, getClass().getClassLoader());
+	}
+
+	private static JavaFileObject source(final String name, final String content) {
+		return new SimpleJavaFileObject(URI.create("string:///sample/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return content;
+			}
+		};
+	}
+}